@@ -3,9 +3,11 @@ package com.xxxx.seckill;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("com.xxxx.seckill")
+@EnableScheduling
 public class SeckillApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,76 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.datasource.DataSourceContextHolder;
+import com.xxxx.seckill.datasource.ReadOnly;
+import com.xxxx.seckill.datasource.ReadOnlyInterceptor;
+import com.xxxx.seckill.datasource.ReadYourWritesGuard;
+import com.xxxx.seckill.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 读写分离配置
+ *
+ * 配置 seckill.datasource.routing.enabled=true 时启用，替换 spring.datasource 的单一连接池：
+ * - write：主库连接池，下单、支付写回等写操作以及所有事务
+ * - read：从库连接池，标注 {@link ReadOnly} 的商品列表、订单历史查询
+ *
+ * 两个连接池的配置项与 Hikari 相同（jdbc-url、username、password、maximum-pool-size 等）。
+ * 本地测试时可以把两个连接池指向同一个数据库。
+ *
+ * 路由数据源外层包一层 LazyConnectionDataSourceProxy，真正执行SQL时才获取连接，
+ * 保证选择数据源发生在 @ReadOnly 拦截器设置之后。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "seckill.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("seckill.datasource.routing.write")
+    public HikariDataSource writeDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConfigurationProperties("seckill.datasource.routing.read")
+    public HikariDataSource readDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        Map<Object, Object> targetDataSources = new HashMap<>(4);
+        targetDataSources.put(DataSourceContextHolder.WRITE, writeDataSource);
+        targetDataSources.put(DataSourceContextHolder.READ, readDataSource);
+        RoutingDataSource routingDataSource = new RoutingDataSource();
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(writeDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 拦截 @ReadOnly 方法，Mapper接口方法上的注解同样生效
+     */
+    @Bean
+    public Advisor readOnlyAdvisor(ReadYourWritesGuard readYourWritesGuard) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadOnly.class, true),
+                new ReadOnlyInterceptor(readYourWritesGuard));
+    }
+}
@@ -0,0 +1,117 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.entity.Goods;
+import com.xxxx.seckill.entity.Order;
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.OrderDetailVo;
+import com.xxxx.seckill.vo.OrderItemVo;
+import com.xxxx.seckill.vo.OrderPageVo;
+import com.xxxx.seckill.vo.UserCredential;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 兼容旧格式的Redis值序列化器
+ *
+ * 写入始终使用类型固定的JSON（不带类型信息）。读取时先按新格式解析，失败再按旧版
+ * GenericJackson2JsonRedisSerializer（DefaultTyping.NON_FINAL）的格式解析：旧格式除了 @class 字段，
+ * Date 等非 final 类型的字段会被包装成 ["java.util.Date", 1690000000000] 这样的数组，
+ * 新格式的 ObjectMapper 无法直接读取。
+ *
+ * 旧数据读出后不会主动回写，随会话续期或过期自然替换为新格式。
+ * 只在升级后的迁移窗口内启用（seckill.redis-legacy-read.enabled），旧数据全部过期后关闭。
+ */
+@Slf4j
+public class LegacyCompatibleRedisSerializer<T> implements RedisSerializer<T> {
+
+    /**
+     * 旧格式中允许出现的类型：Redis中缓存过的领域对象，以及它们字段中的 List、BigDecimal、Date、java.time
+     */
+    private static final PolymorphicTypeValidator LEGACY_TYPE_VALIDATOR = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType(User.class)
+            .allowIfSubType(UserCredential.class)
+            .allowIfSubType(Goods.class)
+            .allowIfSubType(GoodsVo.class)
+            .allowIfSubType(Order.class)
+            .allowIfSubType(OrderDetailVo.class)
+            .allowIfSubType(OrderPageVo.class)
+            .allowIfSubType(OrderItemVo.class)
+            .allowIfSubType(ArrayList.class)
+            .allowIfSubType(BigDecimal.class)
+            .allowIfSubType(Date.class)
+            .allowIfSubType("java.time.")
+            .build();
+
+    private final Class<T> type;
+
+    private final Jackson2JsonRedisSerializer<T> current;
+
+    private final GenericJackson2JsonRedisSerializer legacy;
+
+    public LegacyCompatibleRedisSerializer(Class<T> type, ObjectMapper objectMapper) {
+        this.type = type;
+        this.current = new Jackson2JsonRedisSerializer<>(type);
+        this.current.setObjectMapper(objectMapper);
+        this.legacy = new GenericJackson2JsonRedisSerializer(legacyObjectMapper());
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        return current.serialize(value);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        try {
+            return current.deserialize(bytes);
+        } catch (SerializationException e) {
+            Object value;
+            try {
+                value = legacy.deserialize(bytes);
+            } catch (SerializationException legacyError) {
+                e.addSuppressed(legacyError);
+                throw e;
+            }
+            if (value != null && !type.isInstance(value)) {
+                throw new SerializationException("旧格式数据类型不匹配，期望 " + type.getName()
+                        + "，实际 " + value.getClass().getName(), e);
+            }
+            log.debug("按旧格式读取Redis数据：{}", type.getSimpleName());
+            return type.cast(value);
+        }
+    }
+
+    /**
+     * 与旧版 RedisConfig 相同的类型包装格式，只用于读取。
+     * 旧版使用 LaissezFaireSubTypeValidator，任意 @class 都会被实例化；这里只允许缓存过的领域对象
+     * 及其字段类型，其他类型在实例化之前就被拒绝
+     */
+    static ObjectMapper legacyObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.activateDefaultTyping(
+                LEGACY_TYPE_VALIDATOR,
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        return objectMapper;
+    }
+}
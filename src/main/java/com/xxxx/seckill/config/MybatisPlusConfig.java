@@ -0,0 +1,28 @@
+package com.xxxx.seckill.config;
+
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
+import com.xxxx.seckill.sharding.ShardRouter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis-Plus 插件配置
+ */
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 订单分表：SQL中的 t_order、t_seckill_order 替换为当前分片的物理表
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "seckill.sharding", name = "enabled", havingValue = "true")
+    public MybatisPlusInterceptor mybatisPlusInterceptor(ShardRouter shardRouter) {
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new DynamicTableNameInnerInterceptor((sql, tableName) ->
+                shardRouter.physicalTableName(tableName)));
+        return interceptor;
+    }
+}
@@ -0,0 +1,75 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.rabbitmq.MQReceiver;
+import com.xxxx.seckill.rabbitmq.SeckillPartitioner;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RabbitMQ配置类 - 按商品分区
+ *
+ * 配置 seckill.mq-partition.enabled=true 时启用：
+ * seckillPartitionExchange（direct）按路由键 0 ~ max-1 绑定到 seckillQueue.0 ~ seckillQueue.{max-1}，
+ * 每个队列注册一个单线程监听容器。队列开启 x-single-active-consumer，
+ * 多节点部署时同一队列也只有一个消费者在处理，其余节点的消费者作为备用。
+ *
+ * 原 seckillQueue 的监听保持不变，用于消费切换前已经入队的消息。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "seckill.mq-partition", name = "enabled", havingValue = "true")
+public class RabbitMQPartitionConfig implements RabbitListenerConfigurer {
+
+    public static final String EXCHANGE = "seckillPartitionExchange";
+    public static final String QUEUE_PREFIX = RabbitMQTopicConfig.QUEUE + ".";
+
+    @Autowired
+    private SeckillPartitioner seckillPartitioner;
+
+    @Autowired
+    private MQReceiver mqReceiver;
+
+    @Bean
+    public Declarables seckillPartitionDeclarables() {
+        DirectExchange exchange = new DirectExchange(EXCHANGE);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+        for (int i = 0; i < seckillPartitioner.getMaxPartitions(); i++) {
+            Queue queue = QueueBuilder.durable(QUEUE_PREFIX + i).singleActiveConsumer().build();
+            Binding binding = BindingBuilder.bind(queue).to(exchange).with(String.valueOf(i));
+            declarables.add(queue);
+            declarables.add(binding);
+        }
+        return new Declarables(declarables);
+    }
+
+    @Override
+    public void configureRabbitListeners(@NonNull RabbitListenerEndpointRegistrar registrar) {
+        ChannelAwareMessageListener listener = mqReceiver::receive;
+        for (int i = 0; i < seckillPartitioner.getMaxPartitions(); i++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("seckillPartition-" + i);
+            endpoint.setQueueNames(QUEUE_PREFIX + i);
+            endpoint.setConcurrency("1");
+            endpoint.setMessageListener(listener);
+            registrar.registerEndpoint(endpoint);
+        }
+    }
+}
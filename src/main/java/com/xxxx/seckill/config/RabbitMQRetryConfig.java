@@ -0,0 +1,45 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.rabbitmq.SeckillMessageRecoverer;
+
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RabbitMQ配置类 - 失败重试与死信
+ *
+ * 每个重试层级声明一个 fanout 交换机和同名的延迟队列 seckillRetry.{延迟毫秒}：
+ * 队列设置 x-message-ttl，死信交换机为默认交换机且不指定死信路由键，
+ * 消息过期后按发送时的路由键（原队列名）回到原队列。
+ * 重试用尽或无法解码的消息进入 seckillQueue.dlq，不设置过期时间，等待人工处理或重新投递。
+ */
+@Configuration
+public class RabbitMQRetryConfig {
+
+    @Bean
+    public Declarables seckillRetryDeclarables(SeckillMessageRecoverer seckillMessageRecoverer) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int tier = 1; tier <= seckillMessageRecoverer.getTiers(); tier++) {
+            String name = seckillMessageRecoverer.tierName(tier);
+            FanoutExchange exchange = new FanoutExchange(name);
+            Queue queue = QueueBuilder.durable(name)
+                    .ttl((int) seckillMessageRecoverer.getTierDelay(tier))
+                    .deadLetterExchange("")
+                    .build();
+            declarables.add(exchange);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange));
+        }
+        declarables.add(QueueBuilder.durable(SeckillMessageRecoverer.DEAD_LETTER_QUEUE).build());
+        return new Declarables(declarables);
+    }
+}
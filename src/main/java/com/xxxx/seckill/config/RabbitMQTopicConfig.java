@@ -0,0 +1,36 @@
+package com.xxxx.seckill.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ配置类 - Topic模式
+ *
+ * 秒杀下单消息统一发往 seckillExchange，路由键 seckill.# 绑定到 seckillQueue
+ */
+@Configuration
+public class RabbitMQTopicConfig {
+
+    public static final String QUEUE = "seckillQueue";
+    public static final String EXCHANGE = "seckillExchange";
+    public static final String ROUTING_KEY = "seckill.message";
+
+    @Bean
+    public Queue seckillQueue() {
+        return new Queue(QUEUE);
+    }
+
+    @Bean
+    public TopicExchange seckillExchange() {
+        return new TopicExchange(EXCHANGE);
+    }
+
+    @Bean
+    public Binding seckillBinding() {
+        return BindingBuilder.bind(seckillQueue()).to(seckillExchange()).with("seckill.#");
+    }
+}
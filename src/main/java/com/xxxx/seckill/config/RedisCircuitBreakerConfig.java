@@ -0,0 +1,105 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.redis.RedisCircuitOpenException;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Redis熔断配置
+ *
+ * 包装 RedisConnectionFactory，所有 RedisTemplate 获取连接时先经过 {@link RedisCircuitBreaker}：
+ * 熔断期间直接抛出 {@link RedisCircuitOpenException}，不会在连接池或命令超时上等待；
+ * 正常期间记录每条命令的耗时和连接失败、超时异常，作为熔断依据。
+ * 响应式连接只在熔断期间拒绝，不参与统计。
+ */
+@Configuration
+public class RedisCircuitBreakerConfig {
+
+    /**
+     * 不代表一次Redis访问的连接方法，不计入统计
+     */
+    private static final Set<String> UNRECORDED_METHODS = new HashSet<>(Arrays.asList(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined", "openPipeline",
+            "getSentinelConnection", "toString", "hashCode", "equals"));
+
+    @Bean
+    public static BeanPostProcessor redisCircuitBreakerPostProcessor(ObjectProvider<RedisCircuitBreaker> breaker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName)
+                    throws BeansException {
+                if (!(bean instanceof RedisConnectionFactory)) {
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                    String name = invocation.getMethod().getName();
+                    RedisCircuitBreaker circuitBreaker = breaker.getObject();
+                    if ("getReactiveConnection".equals(name) || "getReactiveClusterConnection".equals(name)) {
+                        if (circuitBreaker.isOpen()) {
+                            throw new RedisCircuitOpenException();
+                        }
+                        return invocation.proceed();
+                    }
+                    if (!"getConnection".equals(name) && !"getClusterConnection".equals(name)) {
+                        return invocation.proceed();
+                    }
+                    circuitBreaker.acquirePermission();
+                    long start = System.currentTimeMillis();
+                    Object connection;
+                    try {
+                        connection = invocation.proceed();
+                    } catch (RedisConnectionFailureException e) {
+                        circuitBreaker.record(System.currentTimeMillis() - start, true);
+                        throw e;
+                    }
+                    return recording((RedisConnection) connection, circuitBreaker);
+                });
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+
+    /**
+     * 包装连接，统计每条命令的结果
+     */
+    private static RedisConnection recording(RedisConnection connection, RedisCircuitBreaker circuitBreaker) {
+        ProxyFactory proxyFactory = new ProxyFactory(connection);
+        proxyFactory.setInterfaces(ClassUtils.getAllInterfaces(connection));
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Method method = invocation.getMethod();
+            if (UNRECORDED_METHODS.contains(method.getName()) || method.getName().endsWith("Commands")) {
+                return invocation.proceed();
+            }
+            long start = System.currentTimeMillis();
+            try {
+                Object result = invocation.proceed();
+                circuitBreaker.record(System.currentTimeMillis() - start, false);
+                return result;
+            } catch (RedisConnectionFailureException | QueryTimeoutException e) {
+                circuitBreaker.record(System.currentTimeMillis() - start, true);
+                throw e;
+            }
+        });
+        return (RedisConnection) proxyFactory.getProxy();
+    }
+}
@@ -1,44 +1,165 @@
 package com.xxxx.seckill.config;
 
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.OrderDetailVo;
+import com.xxxx.seckill.vo.OrderPageVo;
+import com.xxxx.seckill.vo.UserCredential;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+/**
+ * Redis配置
+ *
+ * 按领域对象提供类型固定的模板，JSON中不再携带 @class 类型信息，反序列化也不需要多态查找。
+ * 升级后的迁移窗口内（seckill.redis-legacy-read.enabled=true），旧版本写入的带类型信息的数据
+ * （@class 以及 ["java.util.Date", …] 包装）读取时按旧格式兜底解析：
+ * - userRedisTemplate：会话用户 user:{ticket}
+ * - userCredentialRedisTemplate：登录凭证 userCredential:{mobile}
+ * - goodsVoRedisTemplate：商品详情
+ * - orderDetailRedisTemplate：订单详情 orderDetail:{orderId}
+ * - orderPageRedisTemplate：用户订单列表首页 orderList:{userId}
+ * - reactiveUserRedisTemplate、reactiveGoodsVoRedisTemplate：响应式接口使用，key和JSON格式与上面相同
+ * - stringRedisTemplate（Spring Boot自动配置）：库存、售罄标记、订单标记等计数类key，值为纯字符串，
+ *   可以直接 INCR/DECR，也可以被Lua脚本操作
+ */
 @Configuration
 public class RedisConfig {
 
+    /**
+     * 是否兼容读取旧版带类型信息的数据，只在升级后的迁移窗口内打开
+     */
+    @Value("${seckill.redis-legacy-read.enabled:false}")
+    private boolean legacyReadEnabled;
+
+    /**
+     * 通用模板，值为不带类型信息的JSON，读出的对象为 Map/List 等基础结构
+     */
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
-        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        return createTemplate(redisConnectionFactory, Object.class);
+    }
 
-        // Configure ObjectMapper for LocalDateTime support AND type information
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule()); // Support for LocalDateTime
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS); // ISO format
+    @Bean
+    public RedisTemplate<String, User> userRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, User.class);
+    }
+
+    @Bean
+    public RedisTemplate<String, UserCredential> userCredentialRedisTemplate(
+            RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, UserCredential.class);
+    }
+
+    @Bean
+    public RedisTemplate<String, GoodsVo> goodsVoRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, GoodsVo.class);
+    }
+
+    @Bean
+    public RedisTemplate<String, OrderDetailVo> orderDetailRedisTemplate(
+            RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, OrderDetailVo.class);
+    }
+
+    @Bean
+    public RedisTemplate<String, OrderPageVo> orderPageRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, OrderPageVo.class);
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, User> reactiveUserRedisTemplate(
+            ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        return createReactiveTemplate(reactiveRedisConnectionFactory, User.class);
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, GoodsVo> reactiveGoodsVoRedisTemplate(
+            ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        return createReactiveTemplate(reactiveRedisConnectionFactory, GoodsVo.class);
+    }
+
+    /**
+     * 预减库存脚本，返回值：扣减后的库存；-1 库存不足；-2 库存未加载
+     */
+    @Bean
+    public RedisScript<Long> stockDecrementScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/stockDecrement.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 订单支付脚本，状态key和支付流记录原子写入
+     */
+    @Bean
+    public RedisScript<Long> orderPayScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/orderPay.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 本地库存租约：租用脚本
+     */
+    @Bean
+    public RedisScript<Long> stockLeaseScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/stockLease.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
 
-        // Enable type information for polymorphic serialization
-        // This adds @class field to JSON for correct deserialization
-        objectMapper.activateDefaultTyping(
-            LaissezFaireSubTypeValidator.instance,
-            ObjectMapper.DefaultTyping.NON_FINAL,
-            JsonTypeInfo.As.PROPERTY
-        );
+    /**
+     * 本地库存租约：归还脚本
+     */
+    @Bean
+    public RedisScript<Long> stockReturnScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/stockReturn.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 释放分布式锁脚本，只删除自己加的锁
+     */
+    @Bean
+    public RedisScript<Long> unlockScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/unlock.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
 
-        // Use GenericJackson2JsonRedisSerializer with configured ObjectMapper
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    private <T> RedisTemplate<String, T> createTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                        Class<T> type) {
+        RedisSerializer<T> serializer = valueSerializer(type);
 
+        RedisTemplate<String, T> redisTemplate = new RedisTemplate<>();
         // key 序列化
-        redisTemplate.setKeySerializer(new StringRedisSerializer());
-        // value 序列化 - 使用 GenericJackson2JsonRedisSerializer 保留类型信息
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        // value 序列化
         redisTemplate.setValueSerializer(serializer);
         //hash 类型 value序列化
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
@@ -48,4 +169,33 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    private <T> ReactiveRedisTemplate<String, T> createReactiveTemplate(
+            ReactiveRedisConnectionFactory reactiveRedisConnectionFactory, Class<T> type) {
+        RedisSerializer<T> serializer = valueSerializer(type);
+        RedisSerializationContext<String, T> context = RedisSerializationContext
+                .<String, T>newSerializationContext(RedisSerializer.string())
+                .value(serializer)
+                .hashValue(serializer)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, context);
+    }
+
+    private <T> RedisSerializer<T> valueSerializer(Class<T> type) {
+        if (legacyReadEnabled) {
+            return new LegacyCompatibleRedisSerializer<>(type, objectMapper());
+        }
+        Jackson2JsonRedisSerializer<T> serializer = new Jackson2JsonRedisSerializer<>(type);
+        serializer.setObjectMapper(objectMapper());
+        return serializer;
+    }
+
+    static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // 支持 LocalDateTime，使用ISO格式
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // 容忍新增/删除字段；旧版带类型包装的数据在迁移窗口内由 LegacyCompatibleRedisSerializer 兜底读取
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return objectMapper;
+    }
 }
@@ -0,0 +1,71 @@
+package com.xxxx.seckill.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 秒杀异步执行模式配置
+ *
+ * 仅在 seckill.async.enabled=true 时生效，为 {@link com.xxxx.seckill.controller.AsyncSeckillController}
+ * 提供执行阻塞调用（RabbitMQ发送、数据库查询）的线程池：
+ * - 运行在 JDK 21+ 且 seckill.async.virtual-threads=true 时，使用每任务一个虚拟线程的执行器
+ * - 否则退化为固定大小的平台线程池
+ *
+ * 项目按 JDK 11 编译，虚拟线程执行器通过反射获取，低版本运行时不会报错。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "seckill.async", name = "enabled", havingValue = "true")
+@Slf4j
+public class SeckillAsyncConfig {
+
+    @Value("${seckill.async.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${seckill.async.pool-size:200}")
+    private int poolSize;
+
+    @Bean(name = "seckillExecutor", destroyMethod = "shutdown")
+    public ExecutorService seckillExecutor() {
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                log.info("秒杀异步模式：使用虚拟线程执行器");
+                return executor;
+            }
+            log.info("秒杀异步模式：当前运行时不支持虚拟线程，使用 {} 个平台线程", poolSize);
+        }
+        AtomicInteger index = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "seckill-async-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * 反射调用 Executors.newVirtualThreadPerTaskExecutor()，运行时不支持时返回null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.entity.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 无状态会话令牌
+ *
+ * 配置 seckill.session.mode=token 时启用。登录后下发HMAC签名的令牌代替Redis中的会话票据，
+ * UserArgumentResolver 本地验签即可得到用户，认证不再需要任何远程调用。
+ *
+ * 令牌格式：base64url(版本 | 用户ID | 签发时间 | 过期时间 | 昵称 | HMAC-SHA256前16字节)
+ *
+ * 吊销：修改密码等场景把 用户ID -> 吊销时间 写入Redis哈希 session:revoked，
+ * 各节点定时拉取到本地，签发时间早于吊销时间的令牌一律拒绝。
+ */
+@Component
+@Slf4j
+public class SessionTokenManager {
+
+    private static final String REVOKED_KEY = "session:revoked";
+
+    private static final byte VERSION = 1;
+
+    /**
+     * 版本(1) + 用户ID(8) + 签发时间(8) + 过期时间(8)
+     */
+    private static final int HEADER_LENGTH = 25;
+
+    private static final int SIGNATURE_LENGTH = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${seckill.session.mode:redis}")
+    private String mode;
+
+    @Value("${seckill.session.token-secret:}")
+    private String secret;
+
+    @Value("${seckill.session.token-ttl:86400}")
+    private long ttlSeconds;
+
+    /**
+     * 本地吊销列表：用户ID -> 吊销时间（毫秒）
+     */
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    private ThreadLocal<Mac> mac;
+
+    @PostConstruct
+    public void init() {
+        byte[] key;
+        if (secret == null || secret.isEmpty()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            if (isEnabled()) {
+                log.warn("未配置 seckill.session.token-secret，使用随机密钥，重启或多节点部署时令牌将失效");
+            }
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, "HmacSHA256");
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * 是否启用令牌会话模式
+     */
+    public boolean isEnabled() {
+        return "token".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 签发令牌
+     */
+    public String issue(User user) {
+        long now = System.currentTimeMillis();
+        byte[] nickname = user.getNickname() == null ? new byte[0] : user.getNickname().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + nickname.length + SIGNATURE_LENGTH);
+        buffer.put(VERSION)
+                .putLong(user.getId())
+                .putLong(now)
+                .putLong(now + ttlSeconds * 1000)
+                .put(nickname);
+        byte[] token = buffer.array();
+        System.arraycopy(sign(token, token.length - SIGNATURE_LENGTH), 0, token,
+                token.length - SIGNATURE_LENGTH, SIGNATURE_LENGTH);
+        return ENCODER.encodeToString(token);
+    }
+
+    /**
+     * 验证令牌并还原用户，令牌无效、过期或已吊销时返回null
+     */
+    public User verify(String ticket) {
+        byte[] token;
+        try {
+            token = DECODER.decode(ticket);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (token.length < HEADER_LENGTH + SIGNATURE_LENGTH || token[0] != VERSION) {
+            return null;
+        }
+        int payloadLength = token.length - SIGNATURE_LENGTH;
+        byte[] expected = sign(token, payloadLength);
+        byte[] actual = new byte[SIGNATURE_LENGTH];
+        System.arraycopy(token, payloadLength, actual, 0, SIGNATURE_LENGTH);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(token, 1, payloadLength - 1);
+        long userId = buffer.getLong();
+        long issuedAt = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        if (System.currentTimeMillis() > expiresAt) {
+            return null;
+        }
+        Long revokedAt = revoked.get(userId);
+        if (revokedAt != null && issuedAt < revokedAt) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userId);
+        user.setNickname(new String(token, HEADER_LENGTH, payloadLength - HEADER_LENGTH, StandardCharsets.UTF_8));
+        return user;
+    }
+
+    /**
+     * 吊销用户此前签发的所有令牌
+     */
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis();
+        revoked.put(userId, now);
+        stringRedisTemplate.opsForHash().put(REVOKED_KEY, String.valueOf(userId), String.valueOf(now));
+    }
+
+    /**
+     * 定时从Redis同步吊销列表，并清理已经超过令牌有效期的记录
+     */
+    @Scheduled(fixedDelayString = "${seckill.session.revoked-refresh-interval:2000}")
+    public void refreshRevoked() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(REVOKED_KEY);
+            long expiredBefore = System.currentTimeMillis() - ttlSeconds * 1000;
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                long revokedAt = Long.parseLong((String) entry.getValue());
+                if (revokedAt < expiredBefore) {
+                    stringRedisTemplate.opsForHash().delete(REVOKED_KEY, entry.getKey());
+                    continue;
+                }
+                revoked.merge(Long.parseLong((String) entry.getKey()), revokedAt, Math::max);
+            }
+            revoked.values().removeIf(revokedAt -> revokedAt < expiredBefore);
+        } catch (Exception e) {
+            log.warn("同步会话吊销列表失败：{}", e.getMessage());
+        }
+    }
+
+    private byte[] sign(byte[] data, int length) {
+        Mac instance = mac.get();
+        instance.update(data, 0, length);
+        byte[] signature = instance.doFinal();
+        byte[] truncated = new byte[SIGNATURE_LENGTH];
+        System.arraycopy(signature, 0, truncated, 0, SIGNATURE_LENGTH);
+        return truncated;
+    }
+}
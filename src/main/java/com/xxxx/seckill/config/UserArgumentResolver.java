@@ -1,14 +1,17 @@
 package com.xxxx.seckill.config;
 
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.xxxx.seckill.datasource.ReadYourWritesGuard;
 import com.xxxx.seckill.entity.User;
 import com.xxxx.seckill.service.IUserService;
 import com.xxxx.seckill.utils.CookieUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.MethodParameter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
@@ -38,12 +41,16 @@ import org.springframework.lang.NonNull;
  * @since 2025-09-17
  */
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserArgumentResolver implements HandlerMethodArgumentResolver {
 
     @Autowired
     @Qualifier("userServiceImpl")
     private IUserService userService;
 
+    @Autowired
+    private SessionTokenManager sessionTokenManager;
+
     /**
      * 判断是否支持解析此参数
      *
@@ -74,6 +81,8 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
      * - 集中处理认证逻辑，确保一致性
      * - 失败时返回null而不抛异常，让控制器可以优雅处理未认证情况
      * - 支持Redis session管理，提升扩展性
+     * - 配置 seckill.session.mode=token 时改为本地校验签名令牌，认证零远程调用
+     * - 用户ID记录到请求属性中，读写分离时用于判断是否需要读主库（读己之写）
      *
      * @param parameter      方法参数元数据
      * @param mavContainer   模型和视图容器
@@ -100,8 +109,19 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
             return null;
         }
 
-        // 通过用户服务验证票据并获取用户信息
-        // 这里支持Redis session管理，确保分布式环境下的session一致性
-        return userService.getUserByCookie(ticket, request, response);
+        User user;
+        if (sessionTokenManager.isEnabled()) {
+            // 令牌会话模式：本地验签还原用户，不访问Redis
+            user = sessionTokenManager.verify(ticket);
+        } else {
+            // 通过用户服务验证票据并获取用户信息
+            // 这里支持Redis session管理，确保分布式环境下的session一致性
+            user = userService.getUserByCookie(ticket, request, response);
+        }
+        if (user != null) {
+            webRequest.setAttribute(ReadYourWritesGuard.REQUEST_USER_ATTRIBUTE, user.getId(),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 }
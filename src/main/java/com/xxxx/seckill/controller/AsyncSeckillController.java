@@ -0,0 +1,108 @@
+package com.xxxx.seckill.controller;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.rabbitmq.SeckillAdmission;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.service.ISeckillOrderService;
+import com.xxxx.seckill.stock.SeckillFlow;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 秒杀控制器（异步模式）
+ *
+ * 配置 seckill.async.enabled=true 时启用，接口路径与 {@link SeckillController} 相同。
+ * 接口返回 CompletableFuture，Tomcat 线程在发起 Redis 调用后立即归还：
+ * - 秒杀流程由 {@link SeckillFlow} 完成，Redis 访问走 Lettuce 的响应式 API，不占用任何线程等待网络
+ * - RabbitMQ 发送和数据库查询仍是阻塞调用，放到 seckillExecutor（运行时支持时为虚拟线程）中执行
+ *
+ * 这样单个节点可以同时挂起的秒杀请求数不再受 Tomcat 线程池大小限制。
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/seckill")
+@ConditionalOnProperty(prefix = "seckill.async", name = "enabled", havingValue = "true")
+public class AsyncSeckillController {
+
+    @Autowired
+    @Qualifier("seckillOrderServiceImpl")
+    private ISeckillOrderService seckillOrderService;
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private SeckillAdmission seckillAdmission;
+
+    @Autowired
+    private SeckillFlow seckillFlow;
+
+    private final Executor seckillExecutor;
+
+    public AsyncSeckillController(@Qualifier("seckillExecutor") Executor seckillExecutor) {
+        this.seckillExecutor = seckillExecutor;
+    }
+
+    /**
+     * 秒杀
+     *
+     * @param user      当前登录用户（由UserArgumentResolver自动注入）
+     * @param goodsId   商品ID
+     * @param requestId 请求ID，由商品详情页生成，重复提交时相同；不传时由服务端生成
+     * @param response  准入控制拒绝时写入 Retry-After 响应头
+     * @return 0 表示排队中
+     */
+    @RequestMapping(value = "/doSeckill", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<RespBean> doSeckill(User user, Long goodsId, Long requestId, HttpServletResponse response) {
+        if (user == null) {
+            return CompletableFuture.completedFuture(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        if (seckillFlow.isSoldOut(goodsId)) {
+            return CompletableFuture.completedFuture(RespBean.error(RespBeanEnum.EMPTY_STOCK));
+        }
+        // Redis熔断期间无法判断重复抢购和预减库存，直接拒绝
+        if (redisCircuitBreaker.isOpen()) {
+            return CompletableFuture.completedFuture(RespBean.error(RespBeanEnum.SERVICE_BUSY));
+        }
+        long retryAfter = seckillAdmission.tryAcquire();
+        if (retryAfter > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return CompletableFuture.completedFuture(RespBean.error(RespBeanEnum.SECKILL_BUSY, retryAfter));
+        }
+        long id = requestId != null && requestId > 0 ? requestId : SeckillMessage.newRequestId();
+        return seckillFlow.seckill(user, goodsId, id)
+                .doFinally(signal -> seckillAdmission.release())
+                .toFuture();
+    }
+
+    /**
+     * 获取秒杀结果
+     *
+     * @return orderId：成功，-1：秒杀失败，0：排队中
+     */
+    @RequestMapping(value = "/result", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<RespBean> getResult(User user, Long goodsId) {
+        if (user == null) {
+            return CompletableFuture.completedFuture(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        return CompletableFuture.supplyAsync(() -> seckillOrderService.getResult(user, goodsId), seckillExecutor)
+                .thenApply(RespBean::success);
+    }
+}
@@ -1,16 +1,27 @@
 package com.xxxx.seckill.controller;
 
 import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.exception.GlobalException;
 import com.xxxx.seckill.service.IGoodsService;
 import com.xxxx.seckill.service.IUserService;
+import com.xxxx.seckill.vo.GoodsDetailVo;
+import com.xxxx.seckill.vo.GoodsPageVo;
 import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.SeckillMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
 
 /**
  * 商品控制器
@@ -32,6 +43,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
  * @since 2025-09-17
  */
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/goods")
 @Slf4j
 public class GoodsController {
@@ -44,6 +56,11 @@ public class GoodsController {
     @Qualifier("goodsServiceImpl")
     private IGoodsService goodsService;
 
+    /**
+     * 商品列表每页数量
+     */
+    private static final int PAGE_SIZE = 20;
+
     /**
      * 跳转到商品列表页面
      *
@@ -52,12 +69,16 @@ public class GoodsController {
      * - 统一认证机制，便于安全策略调整
      * - 提高开发效率，让开发者专注于业务逻辑
      *
-     * @param model 视图模型，用于传递数据到前端页面
-     * @param user  当前登录用户（由UserArgumentResolver自动注入）
+     * 列表按商品ID游标分页：cursor 为上一页最后一个商品ID，首页不传。
+     * 多查一条用来判断是否还有下一页。
+     *
+     * @param model  视图模型，用于传递数据到前端页面
+     * @param user   当前登录用户（由UserArgumentResolver自动注入）
+     * @param cursor 分页游标
      * @return 视图名称，跳转到商品列表页面
      */
     @RequestMapping("/toList")
-    public String toList(Model model, User user) {
+    public String toList(Model model, User user, @RequestParam(required = false) Long cursor) {
         // User对象已经由参数解析器自动注入，直接使用即可
         // 如果用户未登录，user会是null，可以在这里处理重定向到登录页面
         if (user == null) {
@@ -66,7 +87,15 @@ public class GoodsController {
 
         // 将用户信息传递给视图
         model.addAttribute("user", user);
-        model.addAttribute("goodsList", goodsService.findGoodsVo());
+        List<GoodsVo> goodsList = goodsService.findGoodsVoPage(cursor, PAGE_SIZE + 1);
+        Long nextCursor = null;
+        if (goodsList.size() > PAGE_SIZE) {
+            goodsList = goodsList.subList(0, PAGE_SIZE);
+            nextCursor = goodsList.get(PAGE_SIZE - 1).getId();
+        }
+        model.addAttribute("goodsList", goodsList);
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", nextCursor);
         return "goodsList";
     }
 
@@ -79,24 +108,52 @@ public class GoodsController {
 
 
         GoodsVo goods = goodsService.findGoodsVoByGoodsId(goodsId);
-        long startAt = goods.getStartDate().getTime();
-        long endAt = goods.getEndDate().getTime();
-        long now = System.currentTimeMillis();
-        // 秒杀状态
-        int seckillStatus = 0;
-        // 剩余时间
-        int remainSeconds = 0;
-        if (now < startAt) { // 秒杀未开始
-            remainSeconds = (int) ((startAt - now) / 1000);
-        } else if (now > endAt) { // 秒杀已结束
-            seckillStatus = 2;
-            remainSeconds = -1;
-        } else { // 秒杀进行中
-            seckillStatus = 1;
+        // 商品不存在或者不是秒杀商品
+        if (goods == null || goods.getStartDate() == null || goods.getEndDate() == null) {
+            throw new GlobalException(RespBeanEnum.GOODS_NOT_EXIST);
         }
-        model.addAttribute("seckillStatus", seckillStatus);
-        model.addAttribute("remainSeconds", remainSeconds);
+        GoodsDetailVo detail = GoodsDetailVo.of(goods, System.currentTimeMillis());
+        model.addAttribute("seckillStatus", detail.getSeckillStatus());
+        model.addAttribute("remainSeconds", detail.getRemainSeconds());
         model.addAttribute("goods", goods);
+        // 本次购买的请求ID，页面重复点击秒杀按钮时提交同一个ID
+        model.addAttribute("requestId", SeckillMessage.newRequestId());
         return "goodsDetail";
     }
+
+    /**
+     * 商品列表（JSON），与响应式模式的同名接口返回相同结构
+     *
+     * @param user   当前登录用户（由UserArgumentResolver自动注入）
+     * @param cursor 分页游标，上一页返回的 nextCursor，首页不传
+     * @return 商品列表和下一页游标
+     */
+    @RequestMapping("/list")
+    @ResponseBody
+    public RespBean list(User user, @RequestParam(required = false) Long cursor) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        return RespBean.success(GoodsPageVo.of(goodsService.findGoodsVoPage(cursor, PAGE_SIZE + 1), PAGE_SIZE));
+    }
+
+    /**
+     * 商品详情（JSON），包含秒杀状态和倒计时
+     *
+     * @param user    当前登录用户（由UserArgumentResolver自动注入）
+     * @param goodsId 商品ID
+     * @return 商品详情
+     */
+    @RequestMapping("/detail/{goodsId}")
+    @ResponseBody
+    public RespBean detail(User user, @PathVariable Long goodsId) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        GoodsVo goods = goodsService.findGoodsVoByGoodsId(goodsId);
+        if (goods == null || goods.getStartDate() == null || goods.getEndDate() == null) {
+            return RespBean.error(RespBeanEnum.GOODS_NOT_EXIST);
+        }
+        return RespBean.success(GoodsDetailVo.of(goods, System.currentTimeMillis()));
+    }
 }   
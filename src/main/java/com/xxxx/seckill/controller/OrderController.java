@@ -1,9 +1,78 @@
 package com.xxxx.seckill.controller;
 
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.service.IOrderService;
+import com.xxxx.seckill.vo.OrderDetailVo;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+/**
+ * 订单控制器
+ */
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/order")
 public class OrderController {
+
+    @Autowired
+    @Qualifier("orderServiceImpl")
+    private IOrderService orderService;
+
+    /**
+     * 订单列表（新订单在前）
+     *
+     * @param user   当前登录用户（由UserArgumentResolver自动注入）
+     * @param cursor 分页游标，上一页返回的 nextCursor，首页不传
+     * @return 订单列表和下一页游标
+     */
+    @RequestMapping(value = "/list", method = RequestMethod.GET)
+    @ResponseBody
+    public RespBean list(User user, @RequestParam(required = false) Long cursor) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        return RespBean.success(orderService.findOrderPage(user, cursor));
+    }
+
+    /**
+     * 订单详情
+     *
+     * @param user    当前登录用户（由UserArgumentResolver自动注入）
+     * @param orderId 订单ID
+     * @return 订单及商品信息
+     */
+    @RequestMapping(value = "/detail", method = RequestMethod.GET)
+    @ResponseBody
+    public RespBean detail(User user, Long orderId) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        OrderDetailVo detail = orderService.getOrderDetail(user, orderId);
+        return RespBean.success(detail);
+    }
+
+    /**
+     * 确认支付
+     *
+     * @param user    当前登录用户（由UserArgumentResolver自动注入）
+     * @param orderId 订单ID
+     * @return 支付结果，重复支付同样返回成功
+     */
+    @RequestMapping(value = "/pay", method = RequestMethod.POST)
+    @ResponseBody
+    public RespBean pay(User user, Long orderId) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        return orderService.pay(user, orderId);
+    }
 }
@@ -0,0 +1,102 @@
+package com.xxxx.seckill.controller;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.rabbitmq.SeckillAdmission;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.service.ISeckillOrderService;
+import com.xxxx.seckill.stock.SeckillFlow;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 秒杀控制器（同步模式）
+ *
+ * 秒杀流程：
+ * 1. 内存标记判断是否已售罄，售罄直接返回，不访问Redis；MQ积压时由准入控制拒绝并返回重试等待时间
+ * 2. 重复抢购判断、预减库存、发送MQ消息由 {@link SeckillFlow} 完成，请求线程等待结果
+ * 3. 前端通过 /seckill/result 轮询下单结果
+ *
+ * 默认启用；配置 seckill.async.enabled=true 时由 {@link AsyncSeckillController} 接管同样的接口。
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/seckill")
+@ConditionalOnProperty(prefix = "seckill.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class SeckillController {
+
+    @Autowired
+    @Qualifier("seckillOrderServiceImpl")
+    private ISeckillOrderService seckillOrderService;
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private SeckillAdmission seckillAdmission;
+
+    @Autowired
+    private SeckillFlow seckillFlow;
+
+    /**
+     * 秒杀
+     *
+     * @param user      当前登录用户（由UserArgumentResolver自动注入）
+     * @param goodsId   商品ID
+     * @param requestId 请求ID，由商品详情页生成，重复提交时相同；不传时由服务端生成
+     * @param response  准入控制拒绝时写入 Retry-After 响应头
+     * @return 0 表示排队中
+     */
+    @RequestMapping(value = "/doSeckill", method = RequestMethod.POST)
+    @ResponseBody
+    public RespBean doSeckill(User user, Long goodsId, Long requestId, HttpServletResponse response) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        if (seckillFlow.isSoldOut(goodsId)) {
+            return RespBean.error(RespBeanEnum.EMPTY_STOCK);
+        }
+        // Redis熔断期间无法判断重复抢购和预减库存，直接拒绝
+        if (redisCircuitBreaker.isOpen()) {
+            return RespBean.error(RespBeanEnum.SERVICE_BUSY);
+        }
+        long retryAfter = seckillAdmission.tryAcquire();
+        if (retryAfter > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return RespBean.error(RespBeanEnum.SECKILL_BUSY, retryAfter);
+        }
+        try {
+            return seckillFlow.seckill(user, goodsId, requestId != null && requestId > 0 ? requestId
+                    : SeckillMessage.newRequestId()).block();
+        } finally {
+            seckillAdmission.release();
+        }
+    }
+
+    /**
+     * 获取秒杀结果
+     *
+     * @return orderId：成功，-1：秒杀失败，0：排队中
+     */
+    @RequestMapping(value = "/result", method = RequestMethod.GET)
+    @ResponseBody
+    public RespBean getResult(User user, Long goodsId) {
+        if (user == null) {
+            return RespBean.error(RespBeanEnum.SESSION_ERROR);
+        }
+        Long orderId = seckillOrderService.getResult(user, goodsId);
+        return RespBean.success(orderId);
+    }
+}
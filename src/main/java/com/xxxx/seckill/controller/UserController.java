@@ -1,11 +1,22 @@
 package com.xxxx.seckill.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.service.IUserService;
 import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.UpdatePasswordVo;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
 
 /**
  * <p>
@@ -16,12 +27,43 @@ import com.xxxx.seckill.vo.RespBean;
  * @since 2025-09-07
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/user")
 public class UserController {
 
+    @Autowired
+    @Qualifier("userServiceImpl")
+    private IUserService userService;
+
     @RequestMapping("/info")
     @ResponseBody
     public RespBean info(User user) {
         return RespBean.success("success");
     }
+
+    /**
+     * 修改密码
+     *
+     * @param userTicket       用户会话票据，未登录时为null，由服务层返回 SESSION_ERROR
+     * @param updatePasswordVo 前端一次MD5后的新密码
+     */
+    @RequestMapping(value = "/updatePassword", method = RequestMethod.POST)
+    @ResponseBody
+    public RespBean updatePassword(@CookieValue(value = "userTicket", required = false) String userTicket,
+                                   @Valid UpdatePasswordVo updatePasswordVo,
+                                   HttpServletRequest request, HttpServletResponse response) {
+        return userService.updatePassword(userTicket, updatePasswordVo.getPassword(), request, response);
+    }
+
+    /**
+     * 退出登录
+     *
+     * @param userTicket 用户会话票据，未登录时为null
+     */
+    @RequestMapping(value = "/logout", method = RequestMethod.POST)
+    @ResponseBody
+    public RespBean logout(@CookieValue(value = "userTicket", required = false) String userTicket,
+                           HttpServletRequest request, HttpServletResponse response) {
+        return userService.logout(userTicket, request, response);
+    }
 }
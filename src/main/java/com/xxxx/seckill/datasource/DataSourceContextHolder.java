@@ -0,0 +1,31 @@
+package com.xxxx.seckill.datasource;
+
+/**
+ * 当前线程使用的数据源
+ */
+public final class DataSourceContextHolder {
+
+    public static final String WRITE = "write";
+
+    public static final String READ = "read";
+
+    private static final ThreadLocal<String> CONTEXT = new ThreadLocal<>();
+
+    private DataSourceContextHolder() {
+    }
+
+    /**
+     * 当前数据源，未指定时为null（使用主库）
+     */
+    public static String get() {
+        return CONTEXT.get();
+    }
+
+    public static void set(String dataSource) {
+        if (dataSource == null) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(dataSource);
+        }
+    }
+}
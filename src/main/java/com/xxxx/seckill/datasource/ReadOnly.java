@@ -0,0 +1,22 @@
+package com.xxxx.seckill.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读查询注解
+ *
+ * 启用读写分离（seckill.datasource.routing.enabled=true）后，标注的方法在以下情况之外走从库：
+ * - 已经处于事务中（事务连接已绑定主库）
+ * - 当前请求的用户刚下过单（{@link ReadYourWritesGuard}），从库可能还没有同步
+ *
+ * 可以标注在Mapper接口方法或Service方法上。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
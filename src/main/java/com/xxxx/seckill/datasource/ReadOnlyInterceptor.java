@@ -0,0 +1,34 @@
+package com.xxxx.seckill.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link ReadOnly} 方法拦截器，把查询切换到从库
+ */
+public class ReadOnlyInterceptor implements MethodInterceptor {
+
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    public ReadOnlyInterceptor(ReadYourWritesGuard readYourWritesGuard) {
+        this.readYourWritesGuard = readYourWritesGuard;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String previous = DataSourceContextHolder.get();
+        // 嵌套调用已经选好数据源；事务中的连接已经绑定主库
+        if (previous != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        String dataSource = readYourWritesGuard.currentUserRecentlyWrote()
+                ? DataSourceContextHolder.WRITE : DataSourceContextHolder.READ;
+        DataSourceContextHolder.set(dataSource);
+        try {
+            return invocation.proceed();
+        } finally {
+            DataSourceContextHolder.set(null);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.xxxx.seckill.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 读己之写保护
+ *
+ * 用户下单后的一段时间内（seckill.datasource.routing.read-your-writes-window），
+ * 该用户请求中的只读查询仍然走主库，避免从库延迟导致刚下的订单查不到。
+ *
+ * 下单在MQ消费者中完成，和用户请求可能不在同一个节点，所以写入标记记录在Redis中。
+ * 当前请求的用户由 UserArgumentResolver 写入请求属性。
+ *
+ * 同一请求内多次 @ReadOnly 查询只查一次Redis，结果缓存在请求属性中：
+ * 标记在窗口内一直存在，单个请求的耗时远小于窗口，缓存不会让请求错过刚写入的标记。
+ */
+@Component
+@Slf4j
+public class ReadYourWritesGuard {
+
+    /**
+     * 请求属性：当前登录用户ID
+     */
+    public static final String REQUEST_USER_ATTRIBUTE = ReadYourWritesGuard.class.getName() + ".userId";
+
+    /**
+     * 请求属性：当前用户是否刚写入过数据的检查结果
+     */
+    private static final String RECENT_WRITE_ATTRIBUTE = ReadYourWritesGuard.class.getName() + ".recentWrite";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${seckill.datasource.routing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.datasource.routing.read-your-writes-window:3000}")
+    private long windowMillis;
+
+    /**
+     * 记录用户刚刚写入过数据
+     */
+    public void markWrite(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set("recentWrite:" + userId, "1", windowMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("记录用户写入标记失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前请求的用户是否刚刚写入过数据；不在请求线程中或未登录时返回false
+     */
+    public boolean currentUserRecentlyWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object userId = attributes.getAttribute(REQUEST_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (userId == null) {
+            return false;
+        }
+        Object cached = attributes.getAttribute(RECENT_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null) {
+            return (Boolean) cached;
+        }
+        boolean recentlyWrote;
+        try {
+            recentlyWrote = Boolean.TRUE.equals(stringRedisTemplate.hasKey("recentWrite:" + userId));
+        } catch (Exception e) {
+            // 无法判断时走主库，不缓存，下一次查询再试
+            return true;
+        }
+        attributes.setAttribute(RECENT_WRITE_ATTRIBUTE, recentlyWrote, RequestAttributes.SCOPE_REQUEST);
+        return recentlyWrote;
+    }
+}
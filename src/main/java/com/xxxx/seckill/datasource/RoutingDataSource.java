@@ -0,0 +1,15 @@
+package com.xxxx.seckill.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 读写分离数据源，按 {@link DataSourceContextHolder} 选择主库或从库，默认主库
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String dataSource = DataSourceContextHolder.get();
+        return dataSource == null ? DataSourceContextHolder.WRITE : dataSource;
+    }
+}
@@ -1,5 +1,6 @@
 package com.xxxx.seckill.exception;
 
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.validation.BindException;
@@ -24,6 +25,15 @@ public class GlobalExceptionHandler {
         return respBean;
     }
     
+    /**
+     * Redis不可用或熔断中，快速返回服务繁忙
+     */
+    @ExceptionHandler(RedisConnectionFailureException.class)
+    public RespBean handleRedisConnectionFailure(RedisConnectionFailureException e) {
+        log.warn("Redis不可用：{}", e.getMessage());
+        return RespBean.error(RespBeanEnum.SERVICE_BUSY);
+    }
+
     @ExceptionHandler(Exception.class)
     public RespBean handleGeneralException(Exception e) {
         log.error("异常信息: ", e);
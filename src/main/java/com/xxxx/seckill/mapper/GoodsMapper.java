@@ -2,7 +2,9 @@ package com.xxxx.seckill.mapper;
 
 import com.xxxx.seckill.entity.Goods;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xxxx.seckill.datasource.ReadOnly;
 import com.xxxx.seckill.vo.GoodsVo;
+import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
 
@@ -18,8 +20,18 @@ public interface GoodsMapper extends BaseMapper<Goods> {
      * 获取商品列表
      * @return
      */
+    @ReadOnly
     List<GoodsVo> findGoodsVo();
 
+    /**
+     * 按商品ID游标分页获取商品列表，不查询 goods_detail
+     * @param cursor 上一页最后一个商品ID，首页传0
+     * @param size 每页数量
+     * @return 商品列表
+     */
+    @ReadOnly
+    List<GoodsVo> findGoodsVoPage(@Param("cursor") Long cursor, @Param("size") int size);
+
 
     /**
      * 根据商品ID获取商品详情
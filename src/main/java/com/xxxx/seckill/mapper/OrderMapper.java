@@ -2,6 +2,12 @@ package com.xxxx.seckill.mapper;
 
 import com.xxxx.seckill.entity.Order;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xxxx.seckill.datasource.ReadOnly;
+import com.xxxx.seckill.vo.OrderItemVo;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
 
 /**
 * @author ubuntu
@@ -11,6 +17,23 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface OrderMapper extends BaseMapper<Order> {
 
+    /**
+     * 批量把订单更新为已支付，只更新 status=0 的订单，可重复执行
+     * @param list 订单ID和支付时间
+     * @return 实际更新的行数
+     */
+    int batchUpdatePaid(@Param("list") List<Order> list);
+
+    /**
+     * 按订单ID倒序游标分页查询用户订单
+     * @param userId 用户ID
+     * @param cursor 上一页最后一个订单ID，首页传null
+     * @param size 每页数量
+     * @return 订单列表项
+     */
+    @ReadOnly
+    List<OrderItemVo> findOrderItemPage(@Param("userId") Long userId, @Param("cursor") Long cursor,
+                                        @Param("size") int size);
 }
 
 
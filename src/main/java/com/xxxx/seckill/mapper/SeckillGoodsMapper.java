@@ -3,6 +3,8 @@ package com.xxxx.seckill.mapper;
 import com.xxxx.seckill.entity.SeckillGoods;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import org.apache.ibatis.annotations.Param;
+
 /**
 * @author ubuntu
 * @description 针对表【t_seckill_goods】的数据库操作Mapper
@@ -11,6 +13,28 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface SeckillGoodsMapper extends BaseMapper<SeckillGoods> {
 
+    /**
+     * 库存充足时一次扣减多件库存
+     * @param goodsId 商品ID
+     * @param count 扣减数量
+     * @return 更新行数，库存不足 count 时为0
+     */
+    int decrementStock(@Param("goodsId") Long goodsId, @Param("count") int count);
+
+    /**
+     * 锁定秒杀商品行并返回剩余库存，必须在事务中调用
+     * @param goodsId 商品ID
+     * @return 剩余库存，商品不存在时为null
+     */
+    Integer selectStockForUpdate(@Param("goodsId") Long goodsId);
+
+    /**
+     * 归还库存
+     * @param goodsId 商品ID
+     * @param count 归还数量
+     * @return 更新行数
+     */
+    int increaseStock(@Param("goodsId") Long goodsId, @Param("count") int count);
 }
 
 
@@ -2,8 +2,12 @@ package com.xxxx.seckill.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.vo.UserLoginStat;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * <p>
@@ -16,4 +20,10 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 批量累加登录次数并更新最后登录时间
+     * @param list 登录统计
+     * @return 更新行数
+     */
+    int batchUpdateLoginStats(@Param("list") List<UserLoginStat> list);
 }
@@ -0,0 +1,108 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.rabbitmq.client.Channel;
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.service.IGoodsService;
+import com.xxxx.seckill.service.IOrderService;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 消息消费者
+ *
+ * 监听秒杀队列并真正下单。application.yml 中配置了手动确认模式，
+ * 只有下单流程走完（成功或确认无需下单）后才 ack，消费者宕机时消息会重新投递。
+ * 消息体由 SeckillMessageConverter 解码，处理前按请求ID去重，见 SeckillRequestIdempotency。
+ * 下单失败时由 SeckillMessageRecoverer 转发到延迟重试队列或死信队列后再 ack，失败的消息不会阻塞消费者。
+ * 订单唯一索引冲突说明已经下过单，记为已处理后直接 ack，不进入重试。
+ */
+@Service
+@Slf4j
+public class MQReceiver {
+
+    @Autowired
+    @Qualifier("goodsServiceImpl")
+    private IGoodsService goodsService;
+
+    @Autowired
+    @Qualifier("orderServiceImpl")
+    private IOrderService orderService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SeckillRequestIdempotency seckillRequestIdempotency;
+
+    @Autowired
+    private SeckillMessageConverter seckillMessageConverter;
+
+    @Autowired
+    private SeckillMessageRecoverer seckillMessageRecoverer;
+
+    /**
+     * 接收秒杀消息
+     */
+    @RabbitListener(queues = RabbitMQTopicConfig.QUEUE)
+    public void receive(Message message, Channel channel) throws IOException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        try {
+            seckill((SeckillMessage) seckillMessageConverter.fromMessage(message));
+            seckillMessageRecoverer.recordSuccess(message);
+        } catch (Exception e) {
+            try {
+                seckillMessageRecoverer.recover(message, e);
+            } catch (AmqpException publishFailure) {
+                // 转发到重试队列失败，原消息重新入队
+                log.error("秒杀消息转发重试队列失败：{}", publishFailure.getMessage());
+                channel.basicNack(deliveryTag, false, true);
+                return;
+            }
+        }
+        channel.basicAck(deliveryTag, false);
+    }
+
+    /**
+     * 下单操作
+     */
+    void seckill(SeckillMessage seckillMessage) {
+        log.debug("接收到的消息：{}", seckillMessage);
+        Long goodsId = seckillMessage.getGoodsId();
+        User user = seckillMessage.toUser();
+
+        // 重新投递或重复提交的消息已经处理过，不再访问数据库
+        if (seckillRequestIdempotency.isProcessed(seckillMessage)) {
+            return;
+        }
+        // 直接读数据库：缓存中的商品可能是过期快照或负缓存，不能据此丢弃已经预减过库存的订单
+        GoodsVo goodsVo = goodsService.findGoodsVoByGoodsIdFromDb(goodsId);
+        // 商品不存在或者重复抢购时无需下单；是否售罄由下单时扣减库存的 stock_count > 0 条件判断
+        boolean canOrder = goodsVo != null
+                && !stringRedisTemplate.hasKey("order:" + user.getId() + ":" + goodsId);
+        if (canOrder) {
+            try {
+                // 下单操作
+                orderService.seckill(user, goodsVo);
+            } catch (DuplicateKeyException e) {
+                // t_seckill_order (user_id, goods_id) 唯一索引冲突：该用户已经下过单（例如两条重复消息并发处理），重试也不会成功，按已处理确认
+                log.info("用户 {} 已经抢购过商品 {}，忽略重复消息 requestId={}", user.getId(), goodsId,
+                        seckillMessage.getRequestId());
+            }
+        }
+        seckillRequestIdempotency.markProcessed(seckillMessage);
+    }
+}
@@ -0,0 +1,230 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.config.RabbitMQPartitionConfig;
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 消息发送者
+ *
+ * 配置 seckill.mq-batch.enabled=true 时批量发送：秒杀请求把消息放入本地队列，
+ * 发送线程每次取出当前积压的全部消息（最多 max-batch 条），在同一个信道上连续发布后调用一次
+ * waitForConfirmsOrDie 等待 broker 确认整批消息，一次确认往返分摊到整批消息上。
+ * 批次发送失败或确认超时时整批重发，重复的消息由消费者按订单是否已存在去重。
+ *
+ * 本地队列已满时退回到调用线程直接发送，相当于对秒杀接口施加背压。
+ *
+ * 启用 seckill.mq-partition 时消息按 goodsId 发往对应的分区队列，见 {@link SeckillPartitioner}。
+ */
+@Service
+@Slf4j
+public class MQSender {
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private SeckillPartitioner seckillPartitioner;
+
+    @Value("${seckill.mq-batch.enabled:false}")
+    private boolean batchEnabled;
+
+    /**
+     * 每批最多发送的消息数
+     */
+    @Value("${seckill.mq-batch.max-batch:500}")
+    private int maxBatch;
+
+    /**
+     * 发送线程数，每个线程独占一个信道
+     */
+    @Value("${seckill.mq-batch.publishers:2}")
+    private int publishers;
+
+    /**
+     * 等待整批确认的超时时间（毫秒）
+     */
+    @Value("${seckill.mq-batch.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    /**
+     * 批次失败后的重发次数
+     */
+    @Value("${seckill.mq-batch.retries:2}")
+    private int retries;
+
+    @Value("${seckill.mq-batch.queue-capacity:100000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingMessage> pending;
+
+    private ExecutorService publisherExecutor;
+
+    private volatile boolean running;
+
+    private final AtomicLong batchSequence = new AtomicLong();
+
+    /**
+     * 本节点成功发布的秒杀消息数（批量发送时按broker确认计数），供准入控制估算消费速率
+     */
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    @PostConstruct
+    public void startPublishers() {
+        if (!batchEnabled) {
+            return;
+        }
+        pending = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        AtomicInteger index = new AtomicInteger();
+        publisherExecutor = Executors.newFixedThreadPool(publishers, r -> {
+            Thread thread = new Thread(r, "seckill-mq-publisher-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < publishers; i++) {
+            publisherExecutor.execute(this::publishLoop);
+        }
+    }
+
+    /**
+     * 停止发送线程，本地队列中剩余的消息在当前线程发送完
+     */
+    @PreDestroy
+    public void stopPublishers() throws InterruptedException {
+        if (publisherExecutor == null) {
+            return;
+        }
+        running = false;
+        publisherExecutor.shutdown();
+        publisherExecutor.awaitTermination(confirmTimeout * (retries + 1), TimeUnit.MILLISECONDS);
+        List<PendingMessage> batch = new ArrayList<>(maxBatch);
+        while (pending.drainTo(batch, maxBatch) > 0) {
+            publishBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 发送秒杀信息
+     *
+     * @param message 秒杀消息，由 SeckillMessageConverter 编码
+     * @return broker 确认后完成；未启用批量发送时发送完成即返回已完成的 future
+     */
+    public CompletableFuture<Void> sendSeckillMessage(SeckillMessage message) {
+        log.debug("发送消息：{}", message);
+        if (batchEnabled) {
+            PendingMessage pendingMessage = new PendingMessage(message);
+            if (pending.offer(pendingMessage)) {
+                return pendingMessage.future;
+            }
+        }
+        send(rabbitTemplate, message);
+        publishedCount.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 批量发送时一条消息从发布到确认（含全部重发）的最长等待时间（毫秒）
+     */
+    public long getConfirmWaitMillis() {
+        return confirmTimeout * (retries + 1);
+    }
+
+    /**
+     * 本节点启动以来成功发布的秒杀消息数
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    private void publishLoop() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingMessage first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            pending.drainTo(batch, maxBatch - 1);
+            publishBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 在同一个信道上发布整批消息并等待确认
+     */
+    private void publishBatch(List<PendingMessage> batch) {
+        long batchId = batchSequence.incrementAndGet();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                rabbitTemplate.invoke(operations -> {
+                    for (PendingMessage pendingMessage : batch) {
+                        send(operations, pendingMessage.message);
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeout);
+                    return null;
+                });
+                publishedCount.addAndGet(batch.size());
+                batch.forEach(pendingMessage -> pendingMessage.future.complete(null));
+                return;
+            } catch (AmqpException e) {
+                if (attempt >= retries) {
+                    log.error("秒杀消息批次 {} 发送失败，共 {} 条，首条 requestId={}", batchId, batch.size(),
+                            batch.get(0).message.getRequestId(), e);
+                    batch.forEach(pendingMessage -> pendingMessage.future.completeExceptionally(e));
+                    return;
+                }
+                log.warn("秒杀消息批次 {} 未确认，第 {} 次重发：{}", batchId, attempt + 1, e.getMessage());
+            }
+        }
+    }
+
+    private void send(RabbitOperations operations, SeckillMessage message) {
+        if (seckillPartitioner.isEnabled()) {
+            operations.convertAndSend(RabbitMQPartitionConfig.EXCHANGE,
+                    String.valueOf(seckillPartitioner.partitionOf(message.getGoodsId())), message);
+        } else {
+            operations.convertAndSend(RabbitMQTopicConfig.EXCHANGE, RabbitMQTopicConfig.ROUTING_KEY, message);
+        }
+    }
+
+    private static final class PendingMessage {
+
+        private final SeckillMessage message;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingMessage(SeckillMessage message) {
+            this.message = message;
+        }
+    }
+}
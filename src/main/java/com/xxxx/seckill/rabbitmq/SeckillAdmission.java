@@ -0,0 +1,244 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.config.RabbitMQPartitionConfig;
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 秒杀接口准入控制
+ *
+ * 配置 seckill.admission.enabled=true 时启用。MQ消费者跟不上时，继续放行请求只会让队列无限增长、
+ * 下单结果延迟到几分钟之后，这里按下游的处理能力限制进入秒杀接口的请求：
+ * 1. 同时处理中的秒杀请求不超过 max-in-flight
+ * 2. 令牌桶限制放行速率：平时按 rate 补充令牌；队列积压超过 queue-soft-limit 时，
+ *    补充速率降为实测的消费速率，放行速度不超过消费者的处理速度
+ * 3. 队列积压超过 queue-hard-limit、没有消费者，或者预计排队时间超过 max-lag 时全部拒绝
+ *
+ * 队列深度和消费者数量通过 RabbitAdmin 的队列属性定时采样。消费速率按
+ * （上次深度 - 本次深度 + 期间本节点发布的消息数）/ 采样间隔 估算，多节点部署时偏保守。
+ * 放行的请求不一定发布消息（售罄、重复请求等），所以按 MQSender 实际发布的消息数计算。
+ * 启用 seckill.mq-partition 时队列深度和消费者数量为所有分区队列（以及旧的 seckillQueue）之和，
+ * 分区数缩小后旧分区中剩余的消息同样计入积压。
+ * 被拒绝的请求返回建议的重试等待时间（秒）。
+ */
+@Component
+@Slf4j
+public class SeckillAdmission {
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private MQSender mqSender;
+
+    @Autowired
+    private SeckillPartitioner seckillPartitioner;
+
+    @Value("${seckill.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.admission.max-in-flight:1000}")
+    private int maxInFlight;
+
+    /**
+     * 令牌补充速率（每秒）
+     */
+    @Value("${seckill.admission.rate:2000}")
+    private double rate;
+
+    /**
+     * 令牌桶容量，允许的突发请求数
+     */
+    @Value("${seckill.admission.burst:2000}")
+    private double burst;
+
+    @Value("${seckill.admission.queue-soft-limit:10000}")
+    private long queueSoftLimit;
+
+    @Value("${seckill.admission.queue-hard-limit:50000}")
+    private long queueHardLimit;
+
+    /**
+     * 预计排队时间上限（毫秒）
+     */
+    @Value("${seckill.admission.max-lag:10000}")
+    private long maxLagMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double tokens;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * 最近一次采样的队列深度，-1 表示采样失败（不按队列限流）
+     */
+    private volatile long queueDepth = -1;
+
+    private volatile int consumerCount = -1;
+
+    /**
+     * 估算的消费速率（条/秒）
+     */
+    private volatile double drainRate = -1;
+
+    private long lastSampleDepth = -1;
+
+    /**
+     * 上次采样时 MQSender 已发布的消息数
+     */
+    private long lastSamplePublished;
+
+    private long lastSampleNanos;
+
+    @PostConstruct
+    public void init() {
+        tokens = burst;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 申请进入秒杀流程
+     *
+     * @return 0：放行，处理结束后必须调用 {@link #release()}；大于0：拒绝，值为建议的重试等待秒数
+     */
+    public long tryAcquire() {
+        if (!enabled) {
+            return 0;
+        }
+        long depth = queueDepth;
+        if (depth >= 0) {
+            if (depth >= queueHardLimit || consumerCount == 0) {
+                return retryAfterSeconds(depth);
+            }
+            double drain = drainRate;
+            if (drain > 0 && depth * 1000 / drain > maxLagMillis) {
+                return retryAfterSeconds(depth);
+            }
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return 1;
+        }
+        if (!tryTakeToken(depth)) {
+            inFlight.decrementAndGet();
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * 放行的请求处理结束
+     */
+    public void release() {
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 定时采样队列深度和消费者数量，估算消费速率
+     */
+    @Scheduled(fixedDelayString = "${seckill.admission.sample-interval:1000}")
+    public void sampleQueue() {
+        if (!enabled) {
+            return;
+        }
+        long depth = 0;
+        int consumers = 0;
+        boolean available = false;
+        try {
+            for (String queue : queueNames()) {
+                Properties properties = amqpAdmin.getQueueProperties(queue);
+                if (properties == null) {
+                    // 队列不存在，例如启用分区后没有声明旧队列
+                    continue;
+                }
+                depth += ((Number) properties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT)).longValue();
+                consumers += ((Number) properties.get(RabbitAdmin.QUEUE_CONSUMER_COUNT)).intValue();
+                available = true;
+            }
+        } catch (Exception e) {
+            log.warn("采样秒杀队列失败：{}", e.getMessage());
+            available = false;
+        }
+        if (!available) {
+            queueDepth = -1;
+            lastSampleDepth = -1;
+            return;
+        }
+        long now = System.nanoTime();
+        long published = mqSender.getPublishedCount();
+        if (lastSampleDepth >= 0 && now > lastSampleNanos) {
+            double drained = Math.max(0, lastSampleDepth - depth + published - lastSamplePublished);
+            double sampled = drained * 1_000_000_000L / (now - lastSampleNanos);
+            // 指数加权平均，平滑单次采样的波动
+            drainRate = drainRate < 0 ? sampled : drainRate * 0.7 + sampled * 0.3;
+        }
+        lastSampleDepth = depth;
+        lastSamplePublished = published;
+        lastSampleNanos = now;
+        consumerCount = consumers;
+        queueDepth = depth;
+    }
+
+    /**
+     * 需要采样的秒杀队列：未分区时只有 seckillQueue；分区时为 seckillQueue 和所有已声明的分区队列
+     */
+    private List<String> queueNames() {
+        if (!seckillPartitioner.isEnabled()) {
+            return Collections.singletonList(RabbitMQTopicConfig.QUEUE);
+        }
+        List<String> queues = new ArrayList<>(seckillPartitioner.getMaxPartitions() + 1);
+        queues.add(RabbitMQTopicConfig.QUEUE);
+        for (int i = 0; i < seckillPartitioner.getMaxPartitions(); i++) {
+            queues.add(RabbitMQPartitionConfig.QUEUE_PREFIX + i);
+        }
+        return queues;
+    }
+
+    private synchronized boolean tryTakeToken(long depth) {
+        long now = System.nanoTime();
+        double refillRate = rate;
+        if (depth >= queueSoftLimit && drainRate >= 0) {
+            refillRate = Math.min(rate, drainRate);
+        }
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * refillRate / 1_000_000_000L);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * 按当前积压和消费速率估算的重试等待时间，至少1秒，最多60秒
+     */
+    private long retryAfterSeconds(long depth) {
+        double drain = drainRate;
+        if (drain <= 0) {
+            return 5;
+        }
+        long excess = Math.max(depth - queueSoftLimit, 0);
+        return Math.max(1, Math.min(60, (long) Math.ceil(excess / drain)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 死信消息重新投递
+ *
+ * 故障排除后启动时加上 --replay-dlq=N，把死信队列中最多 N 条消息投递回原队列，
+ * 重试次数清零，重新经过完整的重试层级。
+ *
+ * 每批从死信队列取出 batch 条（不自动确认），发布到原队列并等待 broker 确认后，
+ * 再一次性确认整批死信，中途失败时未确认的死信会回到死信队列，不会丢失。
+ * 消费者按请求ID去重，重复投递不会重复下单。
+ */
+@Component
+@Slf4j
+public class SeckillDeadLetterReplayer implements ApplicationRunner {
+
+    public static final String REPLAY_OPTION = "replay-dlq";
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${seckill.mq-retry.replay-batch:100}")
+    private int batchSize;
+
+    @Value("${seckill.mq-retry.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> values = args.getOptionValues(REPLAY_OPTION);
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        // 参数错误或投递失败只记录日志，不影响应用启动
+        try {
+            int max = Integer.parseInt(values.get(0).trim());
+            log.info("死信队列重新投递完成，共 {} 条", replay(max));
+        } catch (NumberFormatException e) {
+            log.error("--{} 的值必须是整数：{}", REPLAY_OPTION, values.get(0));
+        } catch (Exception e) {
+            log.error("死信队列重新投递失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把死信队列中最多 maxMessages 条消息投递回原队列
+     *
+     * @return 重新投递的消息数
+     */
+    public int replay(int maxMessages) {
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            channel.confirmSelect();
+            int total = 0;
+            while (total < maxMessages) {
+                int batch = 0;
+                long lastTag = -1;
+                while (batch < batchSize && total + batch < maxMessages) {
+                    GetResponse response = channel.basicGet(SeckillMessageRecoverer.DEAD_LETTER_QUEUE, false);
+                    if (response == null) {
+                        break;
+                    }
+                    AMQP.BasicProperties properties = response.getProps();
+                    Map<String, Object> headers = properties.getHeaders() == null ? new HashMap<>()
+                            : new HashMap<>(properties.getHeaders());
+                    Object origin = headers.remove(SeckillMessageRecoverer.ORIGIN_QUEUE_HEADER);
+                    headers.remove(SeckillMessageRecoverer.RETRY_HEADER);
+                    headers.remove(SeckillMessageRecoverer.ERROR_HEADER);
+                    headers.remove("x-death");
+                    String queue = origin != null ? origin.toString() : RabbitMQTopicConfig.QUEUE;
+                    channel.basicPublish("", queue, properties.builder().headers(headers).build(),
+                            response.getBody());
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    batch++;
+                }
+                if (batch == 0) {
+                    break;
+                }
+                channel.waitForConfirmsOrDie(confirmTimeout);
+                channel.basicAck(lastTag, true);
+                total += batch;
+                log.info("死信队列重新投递 {} 条", batch);
+            }
+            return total;
+        });
+        return replayed == null ? 0 : replayed;
+    }
+}
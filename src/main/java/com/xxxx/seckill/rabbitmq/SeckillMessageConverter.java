@@ -0,0 +1,101 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.utils.JsonUtil;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+import lombok.Data;
+
+/**
+ * 秒杀消息转换器
+ *
+ * SeckillMessage 按固定布局编码为 32 字节（大端序）：
+ * userId(8) | goodsId(8) | requestId(8) | timestamp(8)
+ * 不写类型头，也不经过 Java 序列化或JSON，消息体约为原来JSON格式（含完整User对象）的十分之一。
+ *
+ * 其他类型交给 SimpleMessageConverter 处理。升级前发送的JSON文本消息仍然可以解码为 SeckillMessage。
+ * 注册为Bean后，Spring Boot 会同时用于 RabbitTemplate 和 @RabbitListener 容器。
+ */
+@Component
+public class SeckillMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-seckill-message";
+
+    public static final int MESSAGE_SIZE = 32;
+
+    private final SimpleMessageConverter delegate = new SimpleMessageConverter();
+
+    @Override
+    @NonNull
+    public Message toMessage(@NonNull Object object, @NonNull MessageProperties messageProperties) {
+        if (!(object instanceof SeckillMessage)) {
+            return delegate.toMessage(object, messageProperties);
+        }
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(MESSAGE_SIZE);
+        return new Message(encode((SeckillMessage) object), messageProperties);
+    }
+
+    @Override
+    @NonNull
+    public Object fromMessage(@NonNull Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (CONTENT_TYPE.equals(properties.getContentType())) {
+            return decode(message.getBody());
+        }
+        Object payload = delegate.fromMessage(message);
+        if (payload instanceof String) {
+            return decodeLegacy((String) payload);
+        }
+        return payload;
+    }
+
+    static byte[] encode(SeckillMessage message) {
+        return ByteBuffer.allocate(MESSAGE_SIZE)
+                .putLong(message.getUserId())
+                .putLong(message.getGoodsId())
+                .putLong(message.getRequestId())
+                .putLong(message.getTimestamp())
+                .array();
+    }
+
+    static SeckillMessage decode(byte[] body) {
+        if (body.length != MESSAGE_SIZE) {
+            throw new MessageConversionException("秒杀消息长度错误：" + body.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        return new SeckillMessage(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * 升级前的JSON格式：{"user":{...},"goodsId":1}
+     */
+    private static SeckillMessage decodeLegacy(String json) {
+        LegacyMessage legacy;
+        try {
+            legacy = JsonUtil.jsonStr2Object(json, LegacyMessage.class);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("无法解析秒杀消息：" + json, e);
+        }
+        if (legacy.getUser() == null || legacy.getUser().getId() == null || legacy.getGoodsId() == null) {
+            throw new MessageConversionException("无法解析秒杀消息：" + json);
+        }
+        return new SeckillMessage(legacy.getUser().getId(), legacy.getGoodsId(), 0, 0);
+    }
+
+    @Data
+    static class LegacyMessage {
+        private User user;
+        private Long goodsId;
+    }
+}
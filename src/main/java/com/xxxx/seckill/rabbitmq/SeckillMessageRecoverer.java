@@ -0,0 +1,239 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 秒杀消息失败重试
+ *
+ * 下单失败的消息不再无限重投阻塞消费者，而是确认原消息后转发到重试层级：
+ * - 第 n 层是一个延迟队列 seckillRetry.{延迟毫秒}，延迟为 initial-delay * multiplier^(n-1)，
+ *   消息过期后经默认交换机按原路由键（即原队列名）回到原队列重新消费
+ * - 超过 tiers 层仍失败，或者是重试也不会成功的异常（消息无法解码、违反数据约束等，见 isRetryable），
+ *   转入死信队列 seckillQueue.dlq，
+ *   可以用 SeckillDeadLetterReplayer 批量重新投递
+ *
+ * 每层记录转入次数、重试后成功次数，连同死信数和各层队列积压定时输出到日志，也可以通过 getStats 查询。
+ * 重试和死信消息都等待 broker 确认后才确认原消息，转发失败时原消息重新入队。
+ */
+@Component
+@Slf4j
+public class SeckillMessageRecoverer {
+
+    public static final String RETRY_HEADER = "x-seckill-retry";
+    public static final String ORIGIN_QUEUE_HEADER = "x-seckill-origin-queue";
+    public static final String ERROR_HEADER = "x-seckill-error";
+    public static final String DEAD_LETTER_QUEUE = RabbitMQTopicConfig.QUEUE + ".dlq";
+
+    private static final int MAX_ERROR_LENGTH = 200;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    /**
+     * 重试层数，0 表示失败后直接进入死信队列
+     */
+    @Value("${seckill.mq-retry.tiers:3}")
+    private int tiers;
+
+    /**
+     * 第一层的延迟（毫秒）
+     */
+    @Value("${seckill.mq-retry.initial-delay:1000}")
+    private long initialDelay;
+
+    /**
+     * 每层延迟的倍数
+     */
+    @Value("${seckill.mq-retry.multiplier:5}")
+    private int multiplier;
+
+    @Value("${seckill.mq-retry.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    private long[] tierDelays;
+
+    private AtomicLongArray retried;
+
+    private AtomicLongArray recovered;
+
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private long lastReported = -1;
+
+    @PostConstruct
+    public void init() {
+        tierDelays = new long[Math.max(0, tiers)];
+        long delay = initialDelay;
+        for (int i = 0; i < tierDelays.length; i++) {
+            tierDelays[i] = delay;
+            delay *= multiplier;
+        }
+        retried = new AtomicLongArray(tierDelays.length);
+        recovered = new AtomicLongArray(tierDelays.length);
+    }
+
+    public int getTiers() {
+        return tierDelays.length;
+    }
+
+    public long getTierDelay(int tier) {
+        return tierDelays[tier - 1];
+    }
+
+    /**
+     * 第 tier 层（从1开始）的交换机和队列名，名称带延迟，调整延迟配置时不会与已声明的队列参数冲突
+     */
+    public String tierName(int tier) {
+        return "seckillRetry." + tierDelays[tier - 1];
+    }
+
+    /**
+     * 消息处理成功，经过重试的记到所在层的成功数上
+     */
+    public void recordSuccess(Message message) {
+        int attempt = attemptOf(message);
+        if (attempt > 0 && attempt <= tierDelays.length) {
+            recovered.incrementAndGet(attempt - 1);
+        }
+    }
+
+    /**
+     * 处理失败，转发到下一层重试队列或死信队列
+     */
+    public void recover(Message message, Throwable cause) {
+        int attempt = attemptOf(message);
+        if (!isRetryable(cause) || attempt >= tierDelays.length) {
+            deadLetter(message, cause);
+            return;
+        }
+        int tier = attempt + 1;
+        Message retry = MessageBuilder.fromClonedMessage(message)
+                .setHeader(RETRY_HEADER, tier)
+                .setHeader(ORIGIN_QUEUE_HEADER, originQueue(message))
+                .setHeader(ERROR_HEADER, errorOf(cause))
+                .build();
+        // 经 fanout 交换机进入重试队列，保留原队列名作为路由键，过期后回到原队列
+        publish(tierName(tier), originQueue(message), retry);
+        retried.incrementAndGet(tier - 1);
+        log.warn("秒杀消息处理失败，{} 毫秒后第 {} 次重试：{}", getTierDelay(tier), tier, errorOf(cause));
+    }
+
+    /**
+     * 重试也不会成功的异常：消息无法解码、数据违反约束、参数非法，直接转入死信队列
+     */
+    static boolean isRetryable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException || t instanceof DataIntegrityViolationException
+                    || t instanceof IllegalArgumentException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void deadLetter(Message message, Throwable cause) {
+        Message dead = MessageBuilder.fromClonedMessage(message)
+                .setHeader(ORIGIN_QUEUE_HEADER, originQueue(message))
+                .setHeader(ERROR_HEADER, errorOf(cause))
+                .build();
+        publish("", DEAD_LETTER_QUEUE, dead);
+        deadLettered.incrementAndGet();
+        log.error("秒杀消息转入死信队列，已重试 {} 次：{}", attemptOf(message), errorOf(cause));
+    }
+
+    private void publish(String exchange, String routingKey, Message message) {
+        rabbitTemplate.invoke(operations -> {
+            operations.send(exchange, routingKey, message);
+            operations.waitForConfirmsOrDie(confirmTimeout);
+            return null;
+        });
+    }
+
+    /**
+     * 各层的延迟、转入次数、重试后成功次数和队列积压，以及死信数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (int tier = 1; tier <= tierDelays.length; tier++) {
+            Map<String, Object> tierStats = new LinkedHashMap<>();
+            tierStats.put("delay", tierDelays[tier - 1]);
+            tierStats.put("retried", retried.get(tier - 1));
+            tierStats.put("recovered", recovered.get(tier - 1));
+            tierStats.put("depth", queueDepth(tierName(tier)));
+            stats.put(tierName(tier), tierStats);
+        }
+        Map<String, Object> deadLetterStats = new LinkedHashMap<>();
+        deadLetterStats.put("deadLettered", deadLettered.get());
+        deadLetterStats.put("depth", queueDepth(DEAD_LETTER_QUEUE));
+        stats.put(DEAD_LETTER_QUEUE, deadLetterStats);
+        return stats;
+    }
+
+    /**
+     * 有新的重试或死信时输出各层统计
+     */
+    @Scheduled(fixedDelayString = "${seckill.mq-retry.report-interval:60000}")
+    public void report() {
+        long total = deadLettered.get();
+        for (int i = 0; i < tierDelays.length; i++) {
+            total += retried.get(i) + recovered.get(i);
+        }
+        if (total == lastReported) {
+            return;
+        }
+        lastReported = total;
+        log.info("秒杀消息重试统计：{}", getStats());
+    }
+
+    private long queueDepth(String queue) {
+        try {
+            Properties properties = amqpAdmin.getQueueProperties(queue);
+            return properties == null ? -1 : ((Number) properties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT)).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static int attemptOf(Message message) {
+        Object attempt = message.getMessageProperties().getHeader(RETRY_HEADER);
+        return attempt instanceof Number ? ((Number) attempt).intValue() : 0;
+    }
+
+    private static String originQueue(Message message) {
+        Object origin = message.getMessageProperties().getHeader(ORIGIN_QUEUE_HEADER);
+        if (origin != null) {
+            return origin.toString();
+        }
+        String consumerQueue = message.getMessageProperties().getConsumerQueue();
+        return consumerQueue != null ? consumerQueue : RabbitMQTopicConfig.QUEUE;
+    }
+
+    private static String errorOf(Throwable cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,116 @@
+package com.xxxx.seckill.rabbitmq;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 秒杀消息分区
+ *
+ * 配置 seckill.mq-partition.enabled=true 时，秒杀消息按 goodsId 路由到 seckillQueue.0 ~ seckillQueue.{max-1}，
+ * 每个分区队列只有一个活跃消费者：同一商品的订单串行落库，不同商品的订单并行处理，
+ * 各消费者的事务不会在同一行 t_seckill_goods 上争抢行锁。
+ *
+ * 分区算法为 Jump Consistent Hash：分区数从 n 调整到 n+1 时只有约 1/(n+1) 的商品换分区。
+ * 队列按 max-partitions 一次性声明并全部消费，运行时只调整路由使用的分区数：
+ * 写入Redis键 seckill:mqPartitions 后，各节点在下次刷新时生效。
+ * 调整后的短时间内同一商品可能同时在新旧两个分区中有消息，此时仍由数据库行锁保证库存正确。
+ */
+@Component
+@Slf4j
+public class SeckillPartitioner {
+
+    public static final String PARTITION_COUNT_KEY = "seckill:mqPartitions";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${seckill.mq-partition.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 默认分区数，Redis中没有配置时使用
+     */
+    @Value("${seckill.mq-partition.partitions:8}")
+    private int defaultPartitions;
+
+    /**
+     * 声明的分区队列数，运行时分区数不能超过该值
+     */
+    @Value("${seckill.mq-partition.max-partitions:16}")
+    private int maxPartitions;
+
+    private volatile int partitions;
+
+    @PostConstruct
+    public void init() {
+        partitions = clamp(defaultPartitions);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxPartitions() {
+        return maxPartitions;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * 商品所在的分区
+     */
+    public int partitionOf(long goodsId) {
+        return jumpConsistentHash(goodsId, partitions);
+    }
+
+    /**
+     * 从Redis刷新分区数，Redis不可用时保持当前值
+     */
+    @Scheduled(fixedDelayString = "${seckill.mq-partition.refresh-interval:5000}")
+    public void refreshPartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String value = stringRedisTemplate.opsForValue().get(PARTITION_COUNT_KEY);
+            int configured = value == null ? defaultPartitions : clamp(Integer.parseInt(value.trim()));
+            if (configured != partitions) {
+                log.info("秒杀消息分区数调整：{} -> {}", partitions, configured);
+                partitions = configured;
+            }
+        } catch (NumberFormatException e) {
+            log.warn("分区数配置错误：{}", e.getMessage());
+        } catch (Exception e) {
+            log.debug("刷新分区数失败：{}", e.getMessage());
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(1, Math.min(maxPartitions, value));
+    }
+
+    /**
+     * Jump Consistent Hash（Lamping & Veach）
+     *
+     * @return [0, buckets) 之间的分区号
+     */
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,138 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 秒杀请求幂等
+ *
+ * 请求ID由商品详情页生成（隐藏字段，重复点击提交同一个ID），接口未收到时自行生成，随秒杀消息一路传到消费者：
+ * - 秒杀接口：SET seckillRequest:{userId}:{requestId} NX EX，重复提交直接返回排队中，不再预减库存和发消息；
+ *   请求最终没有发出消息（售罄、商品不存在、发送失败）时删除该键，允许用户重试
+ * - 消费者：处理过的请求记录在集合 seckillProcessed:{goodsId} 中（成员为 userId:requestId），
+ *   重新投递的消息在访问数据库之前用一次 SISMEMBER 判断并直接确认，重启后的重投不会产生大量无效事务
+ *
+ * 升级前的消息 requestId 为0，不做去重。Redis不可用时按未处理过对待，由订单唯一性兜底。
+ */
+@Component
+@Slf4j
+public class SeckillRequestIdempotency {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Value("${seckill.idempotency.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 请求ID和已处理记录的保留时间（秒），应覆盖消息在队列中的最长停留时间
+     */
+    @Value("${seckill.idempotency.ttl:600}")
+    private long ttlSeconds;
+
+    /**
+     * 登记秒杀请求
+     *
+     * @return true：首次提交；false：重复提交
+     */
+    public boolean acceptRequest(long userId, long requestId) {
+        if (!enabled) {
+            return true;
+        }
+        Boolean accepted = stringRedisTemplate.opsForValue()
+                .setIfAbsent(requestKey(userId, requestId), "1", Duration.ofSeconds(ttlSeconds));
+        return !Boolean.FALSE.equals(accepted);
+    }
+
+    public Mono<Boolean> acceptRequestReactive(long userId, long requestId) {
+        if (!enabled) {
+            return Mono.just(true);
+        }
+        return reactiveStringRedisTemplate.opsForValue()
+                .setIfAbsent(requestKey(userId, requestId), "1", Duration.ofSeconds(ttlSeconds))
+                .map(accepted -> !Boolean.FALSE.equals(accepted));
+    }
+
+    /**
+     * 请求没有发出秒杀消息，删除登记允许重试
+     */
+    public void releaseRequest(long userId, long requestId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(requestKey(userId, requestId));
+        } catch (Exception e) {
+            log.warn("删除秒杀请求 {}:{} 失败：{}", userId, requestId, e.getMessage());
+        }
+    }
+
+    public Mono<Void> releaseRequestReactive(long userId, long requestId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return reactiveStringRedisTemplate.delete(requestKey(userId, requestId))
+                .onErrorResume(e -> {
+                    log.warn("删除秒杀请求 {}:{} 失败：{}", userId, requestId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * 消息是否已经处理过
+     */
+    public boolean isProcessed(SeckillMessage message) {
+        if (!enabled || message.getRequestId() == 0) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForSet()
+                    .isMember(processedKey(message.getGoodsId()), member(message)));
+        } catch (Exception e) {
+            log.warn("查询秒杀消息处理记录失败：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 记录消息已处理，在下单流程走完之后调用
+     */
+    public void markProcessed(SeckillMessage message) {
+        if (!enabled || message.getRequestId() == 0) {
+            return;
+        }
+        String key = processedKey(message.getGoodsId());
+        try {
+            stringRedisTemplate.opsForSet().add(key, member(message));
+            stringRedisTemplate.expire(key, Duration.ofSeconds(ttlSeconds));
+        } catch (Exception e) {
+            log.warn("记录秒杀消息处理结果失败：{}", e.getMessage());
+        }
+    }
+
+    private static String requestKey(long userId, long requestId) {
+        return "seckillRequest:" + userId + ":" + requestId;
+    }
+
+    private static String processedKey(long goodsId) {
+        return "seckillProcessed:" + goodsId;
+    }
+
+    private static String member(SeckillMessage message) {
+        return message.getUserId() + ":" + message.getRequestId();
+    }
+}
@@ -0,0 +1,70 @@
+package com.xxxx.seckill.reactive;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.service.IGoodsService;
+import com.xxxx.seckill.vo.GoodsDetailVo;
+import com.xxxx.seckill.vo.GoodsPageVo;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 商品接口（响应式模式），返回结构与 GoodsController 的 /goods/list、/goods/detail 相同
+ *
+ * 商品详情先通过响应式Redis读取缓存，命中时全程不占用线程；
+ * 未命中和商品列表查询走原有的阻塞服务（布隆过滤器、单飞加载、数据库），放到 boundedElastic 调度器执行。
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/goods")
+public class ReactiveGoodsController {
+
+    @Autowired
+    @Qualifier("goodsServiceImpl")
+    private IGoodsService goodsService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, GoodsVo> reactiveGoodsVoRedisTemplate;
+
+    /**
+     * 商品列表每页数量
+     */
+    private static final int PAGE_SIZE = 20;
+
+    @RequestMapping("/list")
+    public Mono<RespBean> list(User user, @RequestParam(required = false) Long cursor) {
+        if (user == null) {
+            return Mono.just(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        return Mono.fromCallable(() -> goodsService.findGoodsVoPage(cursor, PAGE_SIZE + 1))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(goodsList -> RespBean.success(GoodsPageVo.of(goodsList, PAGE_SIZE)));
+    }
+
+    @RequestMapping("/detail/{goodsId}")
+    public Mono<RespBean> detail(User user, @PathVariable Long goodsId) {
+        if (user == null) {
+            return Mono.just(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        return reactiveGoodsVoRedisTemplate.opsForValue().get("goodsDetail:" + goodsId)
+                .onErrorResume(DataAccessException.class, e -> Mono.empty())
+                .switchIfEmpty(Mono.fromCallable(() -> goodsService.findGoodsVoByGoodsId(goodsId))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .filter(goods -> goods.getStartDate() != null && goods.getEndDate() != null)
+                .map(goods -> RespBean.success(GoodsDetailVo.of(goods, System.currentTimeMillis())))
+                .defaultIfEmpty(RespBean.error(RespBeanEnum.GOODS_NOT_EXIST));
+    }
+}
@@ -0,0 +1,47 @@
+package com.xxxx.seckill.reactive;
+
+import com.xxxx.seckill.service.IUserService;
+import com.xxxx.seckill.vo.LoginVo;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import javax.validation.Valid;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 登录（响应式模式）
+ *
+ * 登录校验需要查询数据库，放到 boundedElastic 调度器中执行，不阻塞事件循环线程。
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/login")
+public class ReactiveLoginController {
+
+    @Autowired
+    @Qualifier("userServiceImpl")
+    private IUserService userService;
+
+    @RequestMapping("/doLogin")
+    public Mono<RespBean> doLogin(@Valid LoginVo loginVo, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> userService.login(loginVo))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(result -> {
+                    if (result.getCode() == RespBeanEnum.SUCCESS.getCode()) {
+                        exchange.getResponse().addCookie(ResponseCookie.from("userTicket", (String) result.getObject())
+                                .path("/")
+                                .build());
+                    }
+                });
+    }
+}
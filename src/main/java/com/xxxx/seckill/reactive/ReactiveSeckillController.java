@@ -0,0 +1,93 @@
+package com.xxxx.seckill.reactive;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.rabbitmq.SeckillAdmission;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.service.ISeckillOrderService;
+import com.xxxx.seckill.stock.SeckillFlow;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 秒杀控制器（响应式模式），流程与 AsyncSeckillController 相同
+ *
+ * 秒杀流程由 {@link SeckillFlow} 完成，等待Redis和broker确认期间不占用线程；
+ * 秒杀结果查询是阻塞调用，放到 boundedElastic 调度器执行。
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/seckill")
+public class ReactiveSeckillController {
+
+    @Autowired
+    @Qualifier("seckillOrderServiceImpl")
+    private ISeckillOrderService seckillOrderService;
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private SeckillAdmission seckillAdmission;
+
+    @Autowired
+    private SeckillFlow seckillFlow;
+
+    /**
+     * 秒杀
+     *
+     * @param user      当前登录用户（由ReactiveUserArgumentResolver自动注入）
+     * @param goodsId   商品ID
+     * @param requestId 请求ID，由商品详情页生成，重复提交时相同；不传时由服务端生成
+     * @param exchange  准入控制拒绝时写入 Retry-After 响应头
+     * @return 0 表示排队中
+     */
+    @RequestMapping(value = "/doSeckill", method = RequestMethod.POST)
+    public Mono<RespBean> doSeckill(User user, Long goodsId, Long requestId, ServerWebExchange exchange) {
+        if (user == null) {
+            return Mono.just(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        if (seckillFlow.isSoldOut(goodsId)) {
+            return Mono.just(RespBean.error(RespBeanEnum.EMPTY_STOCK));
+        }
+        // Redis熔断期间无法判断重复抢购和预减库存，直接拒绝
+        if (redisCircuitBreaker.isOpen()) {
+            return Mono.just(RespBean.error(RespBeanEnum.SERVICE_BUSY));
+        }
+        long retryAfter = seckillAdmission.tryAcquire();
+        if (retryAfter > 0) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return Mono.just(RespBean.error(RespBeanEnum.SECKILL_BUSY, retryAfter));
+        }
+        long id = requestId != null && requestId > 0 ? requestId : SeckillMessage.newRequestId();
+        return seckillFlow.seckill(user, goodsId, id)
+                .doFinally(signal -> seckillAdmission.release());
+    }
+
+    /**
+     * 获取秒杀结果
+     *
+     * @return orderId：成功，-1：秒杀失败，0：排队中
+     */
+    @RequestMapping(value = "/result", method = RequestMethod.GET)
+    public Mono<RespBean> getResult(User user, Long goodsId) {
+        if (user == null) {
+            return Mono.just(RespBean.error(RespBeanEnum.SESSION_ERROR));
+        }
+        return Mono.fromCallable(() -> seckillOrderService.getResult(user, goodsId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(RespBean::success);
+    }
+}
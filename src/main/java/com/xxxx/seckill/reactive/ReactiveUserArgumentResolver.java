@@ -0,0 +1,56 @@
+package com.xxxx.seckill.reactive;
+
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.xxxx.seckill.config.SessionTokenManager;
+import com.xxxx.seckill.entity.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式 User 参数解析器
+ *
+ * 与 UserArgumentResolver 相同：从 userTicket Cookie 取票据，令牌会话模式下本地验签，
+ * 否则通过 ReactiveRedisTemplate 读取 user:{ticket}，等待Redis期间不占用线程。
+ * 未登录时参数为null，由控制器返回 SESSION_ERROR。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, User> reactiveUserRedisTemplate;
+
+    @Autowired
+    private SessionTokenManager sessionTokenManager;
+
+    @Override
+    public boolean supportsParameter(@NonNull MethodParameter parameter) {
+        return parameter.getParameterType() == User.class;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Object> resolveArgument(@NonNull MethodParameter parameter, @NonNull BindingContext bindingContext,
+                                        @NonNull ServerWebExchange exchange) {
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst("userTicket");
+        if (cookie == null || StringUtils.isEmpty(cookie.getValue())) {
+            return Mono.empty();
+        }
+        String ticket = cookie.getValue();
+        if (sessionTokenManager.isEnabled()) {
+            return Mono.justOrEmpty(sessionTokenManager.verify(ticket));
+        }
+        return reactiveUserRedisTemplate.opsForValue().get("user:" + ticket).cast(Object.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.xxxx.seckill.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * WebFlux配置
+ *
+ * 以 reactive 配置文件启动（--spring.profiles.active=reactive）时生效，注册响应式的 User 参数解析器。
+ * 响应式模式只提供JSON接口（登录、商品列表/详情、秒杀、秒杀结果），页面仍由 Servlet 模式提供。
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Autowired
+    private ReactiveUserArgumentResolver reactiveUserArgumentResolver;
+
+    @Override
+    public void configureArgumentResolvers(@NonNull ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(reactiveUserArgumentResolver);
+    }
+}
@@ -0,0 +1,182 @@
+package com.xxxx.seckill.redis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis熔断器
+ *
+ * 按最近 window-size 次Redis命令统计失败率，连接失败、超时以及耗时超过 slow-call-threshold 的命令记为失败：
+ * - CLOSED：正常访问；统计次数达到 minimum-calls 且失败率超过 failure-rate-threshold 时熔断
+ * - OPEN：获取连接直接抛出 {@link RedisCircuitOpenException}，不再等待连接超时；持续 open-duration 后进入半开
+ * - HALF_OPEN：只放行 half-open-calls 次探测，全部成功后恢复，任意一次失败重新熔断
+ *
+ * 熔断期间商品详情使用本地副本，登录会话使用最近校验过的本地副本，秒杀直接返回服务繁忙。
+ */
+@Component
+@Slf4j
+public class RedisCircuitBreaker {
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Value("${seckill.redis-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${seckill.redis-breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${seckill.redis-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    /**
+     * 失败率阈值（百分比）
+     */
+    @Value("${seckill.redis-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    /**
+     * 慢调用阈值（毫秒）
+     */
+    @Value("${seckill.redis-breaker.slow-call-threshold:1000}")
+    private long slowCallMillis;
+
+    /**
+     * 熔断持续时间（毫秒）
+     */
+    @Value("${seckill.redis-breaker.open-duration:5000}")
+    private long openDurationMillis;
+
+    @Value("${seckill.redis-breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openedAt;
+
+    /**
+     * 最近的调用结果，true 表示失败，环形覆盖
+     */
+    private boolean[] outcomes;
+
+    private int index;
+
+    private int calls;
+
+    private int failures;
+
+    private int halfOpenPermits;
+
+    private int halfOpenSuccesses;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 是否处于熔断状态（半开探测期间同样视为熔断，业务侧继续降级）
+     */
+    public boolean isOpen() {
+        return enabled && state != State.CLOSED;
+    }
+
+    /**
+     * 访问Redis前调用，熔断期间抛出 {@link RedisCircuitOpenException}
+     */
+    public void acquirePermission() {
+        if (!enabled || state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                    throw new RedisCircuitOpenException();
+                }
+                state = State.HALF_OPEN;
+                openedAt = System.currentTimeMillis();
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+                log.info("Redis熔断进入半开状态，开始探测");
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits <= 0) {
+                    // 探测连接没有执行命令时不会产生结果，超过一个熔断周期后重新放行探测
+                    if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                        throw new RedisCircuitOpenException();
+                    }
+                    openedAt = System.currentTimeMillis();
+                    halfOpenPermits = halfOpenCalls;
+                }
+                halfOpenPermits--;
+            }
+        }
+    }
+
+    /**
+     * 记录一次Redis命令的结果
+     *
+     * @param elapsedMillis 命令耗时
+     * @param failed        是否因连接失败或超时而失败
+     */
+    public void record(long elapsedMillis, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        boolean failure = failed || elapsedMillis >= slowCallMillis;
+        synchronized (this) {
+            switch (state) {
+                case HALF_OPEN:
+                    if (failure) {
+                        open("半开探测失败");
+                    } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                        close();
+                    }
+                    break;
+                case CLOSED:
+                    recordClosed(failure);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void recordClosed(boolean failure) {
+        if (outcomes == null || outcomes.length != windowSize) {
+            outcomes = new boolean[windowSize];
+            index = 0;
+            calls = 0;
+            failures = 0;
+        }
+        if (calls == outcomes.length) {
+            if (outcomes[index]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % outcomes.length;
+        if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+            open("最近 " + calls + " 次命令失败 " + failures + " 次");
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        log.warn("Redis熔断：{}，{} 毫秒内暂停访问", reason, openDurationMillis);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        outcomes = null;
+        log.info("Redis探测成功，恢复访问");
+    }
+}
@@ -0,0 +1,13 @@
+package com.xxxx.seckill.redis;
+
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+/**
+ * Redis熔断期间获取连接时抛出，调用方按Redis不可用处理
+ */
+public class RedisCircuitOpenException extends RedisConnectionFailureException {
+
+    public RedisCircuitOpenException() {
+        super("Redis熔断中，暂停访问");
+    }
+}
@@ -20,10 +20,25 @@ public interface IGoodsService extends IService<Goods> {
      */
     List<GoodsVo> findGoodsVo();
 
+    /**
+     * 游标分页获取商品列表（不含商品详情）
+     * @param cursor 上一页最后一个商品ID，首页传null
+     * @param size 每页数量
+     * @return 商品列表
+     */
+    List<GoodsVo> findGoodsVoPage(Long cursor, int size);
+
     /**
      * 根据商品ID获取商品详情
      * @param goodsId 商品ID
      * @return 商品详情
      */
     GoodsVo findGoodsVoByGoodsId(Long goodsId);
+
+    /**
+     * 直接从数据库获取商品详情，不经过缓存、布隆过滤器和负缓存，供下单使用
+     * @param goodsId 商品ID
+     * @return 商品详情，商品不存在时返回null
+     */
+    GoodsVo findGoodsVoByGoodsIdFromDb(Long goodsId);
 }
@@ -1,8 +1,15 @@
 package com.xxxx.seckill.service;
 
 import com.xxxx.seckill.entity.Order;
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.OrderDetailVo;
+import com.xxxx.seckill.vo.OrderPageVo;
+import com.xxxx.seckill.vo.RespBean;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
 * @author ubuntu
 * @description 针对表【t_order】的数据库操作Service
@@ -10,4 +17,42 @@ import com.baomidou.mybatisplus.extension.service.IService;
 */
 public interface IOrderService extends IService<Order> {
 
+    /**
+     * 秒杀下单
+     * @param user 用户
+     * @param goods 秒杀商品
+     * @return 订单，库存不足时返回null
+     */
+    Order seckill(User user, GoodsVo goods);
+
+    /**
+     * 确认订单支付，重复调用结果相同
+     * @param user 用户
+     * @param orderId 订单ID
+     * @return 统一响应对象
+     */
+    RespBean pay(User user, Long orderId);
+
+    /**
+     * 获取订单详情（订单 + 商品），只能查看自己的订单
+     * @param user 用户
+     * @param orderId 订单ID
+     * @return 订单详情
+     */
+    OrderDetailVo getOrderDetail(User user, Long orderId);
+
+    /**
+     * 游标分页获取用户订单列表（新订单在前）
+     * @param user 用户
+     * @param cursor 上一页最后一个订单ID，首页传null
+     * @return 订单列表和下一页游标
+     */
+    OrderPageVo findOrderPage(User user, Long cursor);
+
+    /**
+     * 查询某个商品的全部订单，启用分表时汇总所有分片
+     * @param goodsId 商品ID
+     * @return 订单列表（新订单在前）
+     */
+    List<Order> findOrdersByGoodsId(Long goodsId);
 }
@@ -10,4 +10,29 @@ import com.baomidou.mybatisplus.extension.service.IService;
 */
 public interface ISeckillGoodsService extends IService<SeckillGoods> {
 
+    /**
+     * 将秒杀商品库存加载到Redis，供秒杀接口预减库存
+     */
+    void loadStockToRedis();
+
+    /**
+     * 是否启用库存合并扣减
+     */
+    boolean isStockAggregationEnabled();
+
+    /**
+     * 扣减一件秒杀库存
+     *
+     * 未启用合并扣减时在调用方事务中直接更新；启用后同一商品的并发扣减合并为一条语句，
+     * 在独立事务中提交，调用方不能在已持有数据库连接的事务中调用。
+     * @param goodsId 商品ID
+     * @return 是否扣减成功，库存不足时返回false
+     */
+    boolean decrementStock(Long goodsId);
+
+    /**
+     * 归还一件库存，合并扣减已提交但下单失败时调用
+     * @param goodsId 商品ID
+     */
+    void restoreStock(Long goodsId);
 }
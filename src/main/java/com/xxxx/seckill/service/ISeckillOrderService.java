@@ -1,6 +1,7 @@
 package com.xxxx.seckill.service;
 
 import com.xxxx.seckill.entity.SeckillOrder;
+import com.xxxx.seckill.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 /**
@@ -10,4 +11,11 @@ import com.baomidou.mybatisplus.extension.service.IService;
 */
 public interface ISeckillOrderService extends IService<SeckillOrder> {
 
+    /**
+     * 获取秒杀结果
+     * @param user 用户
+     * @param goodsId 商品ID
+     * @return orderId：成功，-1：秒杀失败，0：排队中
+     */
+    Long getResult(User user, Long goodsId);
 }
@@ -20,5 +20,20 @@ import javax.servlet.http.HttpServletResponse;
 public interface IUserService extends IService<User> {
     RespBean doLogin(LoginVo loginVo, HttpServletRequest request, HttpServletResponse response);
 
+    /**
+     * 校验密码并创建会话，不写Cookie，响应式接口由调用方设置Cookie
+     * @param loginVo 登录请求
+     * @return 成功时返回会话票据
+     */
+    RespBean login(LoginVo loginVo);
+
     User getUserByCookie(String userTicket, HttpServletRequest request, HttpServletResponse response);
+
+    RespBean updatePassword(String userTicket, String password, HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * 退出登录，删除当前会话
+     * @param userTicket 用户会话票据，未登录时为null
+     */
+    RespBean logout(String userTicket, HttpServletRequest request, HttpServletResponse response);
 }
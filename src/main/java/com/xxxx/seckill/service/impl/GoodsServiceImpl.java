@@ -1,14 +1,40 @@
 package com.xxxx.seckill.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.xxxx.seckill.entity.Goods;
 import com.xxxx.seckill.service.IGoodsService;
 import com.xxxx.seckill.mapper.GoodsMapper;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.utils.LongBloomFilter;
+import com.xxxx.seckill.utils.RedisBatchUtil;
+import com.xxxx.seckill.utils.UUIDUtil;
 import com.xxxx.seckill.vo.GoodsVo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
 * @author ubuntu
@@ -16,23 +42,447 @@ import java.util.List;
 * @createDate 2025-09-27 21:53:20
 */
 @Service
+@Slf4j
 public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, Goods>
     implements IGoodsService {
 
     @Autowired
     private GoodsMapper goodsMapper;
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisTemplate<String, GoodsVo> goodsVoRedisTemplate;
+
+    @Autowired
+    @Qualifier("unlockScript")
+    private RedisScript<Long> unlockScript;
+
+    /**
+     * 商品详情缓存有效期（秒）
+     */
+    @Value("${seckill.goods-cache.ttl:60}")
+    private long cacheTtlSeconds;
+
+    /**
+     * 提前刷新系数，越大越早刷新，0 表示不提前刷新
+     */
+    @Value("${seckill.goods-cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    /**
+     * 是否使用Redis锁在多个节点之间合并加载
+     */
+    @Value("${seckill.goods-cache.redis-lock:false}")
+    private boolean redisLock;
+
+    /**
+     * 未抢到Redis锁时等待其他节点写入缓存的最长时间（毫秒）
+     */
+    @Value("${seckill.goods-cache.lock-wait:2000}")
+    private long lockWaitMillis;
+
+    /**
+     * 正在加载的商品详情：商品ID -> 加载结果，同一商品的并发未命中共用一次数据库查询
+     */
+    private final Map<Long, CompletableFuture<GoodsVo>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次从数据库加载商品详情的耗时（毫秒），用于计算提前刷新的概率
+     */
+    private volatile long loadCostMillis = 50;
+
+    /**
+     * 商品ID布隆过滤器的期望误判率
+     */
+    @Value("${seckill.goods-filter.fpp:0.01}")
+    private double filterFpp;
+
+    /**
+     * 不存在的商品ID在本地缓存的时间（毫秒）
+     */
+    @Value("${seckill.goods-filter.negative-ttl:30000}")
+    private long negativeTtlMillis;
+
+    /**
+     * 不存在商品的本地缓存上限，超过后整体清空，防止随机ID扫描撑大内存
+     */
+    private static final int NOT_EXIST_CACHE_LIMIT = 10000;
+
+    /**
+     * 不存在的商品ID -> 过期时间（毫秒），用于拦截布隆过滤器误判的ID
+     */
+    private final Map<Long, Long> notExistGoods = new ConcurrentHashMap<>();
+
+    /**
+     * 全部商品ID的布隆过滤器，首次查询详情时构建，构建失败时为null（不拦截）
+     */
+    private volatile LongBloomFilter goodsIdFilter;
+
+    private final Object goodsIdFilterLock = new Object();
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    /**
+     * 商品详情本地副本上限，超过后整体清空
+     */
+    private static final int LOCAL_GOODS_LIMIT = 10000;
+
+    /**
+     * 最近读取到的商品详情本地副本，Redis熔断期间代替Redis缓存，避免所有详情请求落到数据库
+     */
+    private final Map<Long, GoodsVo> localGoods = new ConcurrentHashMap<>();
+
     /**
      * 获取商品列表
      * @return
      */
     @Override
     public List<GoodsVo> findGoodsVo() {
-        return goodsMapper.findGoodsVo();
+        List<GoodsVo> goodsList = goodsMapper.findGoodsVo();
+        mergeLiveStock(goodsList);
+        return goodsList;
     }
 
+    @Override
+    public List<GoodsVo> findGoodsVoPage(Long cursor, int size) {
+        List<GoodsVo> goodsList = goodsMapper.findGoodsVoPage(cursor == null ? 0L : cursor, size);
+        mergeLiveStock(goodsList);
+        return goodsList;
+    }
+
+    /**
+     * 根据商品ID获取商品详情
+     *
+     * 开售瞬间缓存过期时大量请求会同时未命中，这里保证一次过期只产生一次数据库查询：
+     * 1. 缓存和剩余有效期通过一次pipeline读取，临近过期时按概率提前刷新（XFetch），
+     *    加载耗时越长、剩余时间越短，提前刷新的概率越高
+     * 2. 同一节点内的并发未命中共用一个 CompletableFuture，只有第一个请求查询数据库
+     * 3. 开启 seckill.goods-cache.redis-lock 后，多个节点之间再通过Redis锁合并，
+     *    未抢到锁的节点等待缓存写入
+     *
+     * 不存在的商品ID先经过布隆过滤器和短期的本地负缓存拦截，随机ID扫描不会访问Redis和数据库。
+     * Redis熔断期间优先使用本地副本。
+     *
+     * 返回的对象可能被多个请求共享，调用方不要修改。
+     */
     @Override
     public GoodsVo findGoodsVoByGoodsId(Long goodsId) {
+        if (goodsId == null || isKnownNotExist(goodsId)) {
+            return null;
+        }
+        if (redisCircuitBreaker.isOpen()) {
+            GoodsVo local = localGoods.get(goodsId);
+            if (local != null) {
+                return local;
+            }
+        }
+        CachedGoods cached = readCache(goodsId);
+        if (cached != null && !shouldRefreshEarly(cached.ttlMillis)) {
+            return cached.goods;
+        }
+        CompletableFuture<GoodsVo> future = new CompletableFuture<>();
+        CompletableFuture<GoodsVo> running = inFlight.putIfAbsent(goodsId, future);
+        if (running != null) {
+            // 已有请求在加载：提前刷新的请求直接使用旧值，未命中的请求等待加载结果
+            return cached != null ? cached.goods : await(running);
+        }
+        try {
+            GoodsVo goods = load(goodsId, cached == null ? null : cached.goods);
+            future.complete(goods);
+            return goods;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(goodsId, future);
+        }
+    }
+
+    private GoodsVo load(Long goodsId, GoodsVo stale) {
+        if (!redisLock) {
+            return loadFromDb(goodsId);
+        }
+        String lockKey = "goodsDetailLock:" + goodsId;
+        String token = UUIDUtil.uuid();
+        Boolean locked;
+        try {
+            locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token,
+                    Math.max(lockWaitMillis, loadCostMillis * 2), TimeUnit.MILLISECONDS);
+        } catch (DataAccessException e) {
+            return loadFromDb(goodsId);
+        }
+        if (!Boolean.TRUE.equals(locked)) {
+            // 其他节点正在加载
+            if (stale != null) {
+                return stale;
+            }
+            GoodsVo goods = waitForCache(goodsId);
+            return goods != null ? goods : loadFromDb(goodsId);
+        }
+        try {
+            return loadFromDb(goodsId);
+        } finally {
+            try {
+                stringRedisTemplate.execute(unlockScript, Collections.singletonList(lockKey), token);
+            } catch (DataAccessException e) {
+                log.warn("释放商品详情加载锁失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 下单时的商品信息必须是数据库中的最新数据：缓存中的库存是快照，负缓存和布隆过滤器也可能滞后于新上架的商品。
+     * 是否还有库存由扣减语句的 stock_count > 0 条件判断
+     */
+    @Override
+    public GoodsVo findGoodsVoByGoodsIdFromDb(Long goodsId) {
         return goodsMapper.findGoodsVoByGoodsId(goodsId);
     }
-}
\ No newline at end of file
+
+    private GoodsVo loadFromDb(Long goodsId) {
+        long start = System.currentTimeMillis();
+        GoodsVo goods = goodsMapper.findGoodsVoByGoodsId(goodsId);
+        loadCostMillis = Math.max(1, System.currentTimeMillis() - start);
+        if (goods == null) {
+            markNotExist(goodsId);
+        } else {
+            rememberLocal(goods);
+            try {
+                goodsVoRedisTemplate.opsForValue().set("goodsDetail:" + goodsId, goods, cacheTtlSeconds,
+                        TimeUnit.SECONDS);
+            } catch (DataAccessException e) {
+                log.warn("写入商品详情缓存失败：{}", e.getMessage());
+            }
+        }
+        return goods;
+    }
+
+    /**
+     * 新增商品后同步加入布隆过滤器
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(Goods entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            onGoodsAdded(entity.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean saveBatch(Collection<Goods> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        if (saved) {
+            entityList.forEach(goods -> onGoodsAdded(goods.getId()));
+        }
+        return saved;
+    }
+
+    /**
+     * 定时全量重建布隆过滤器，同步其他节点新增的商品，并按当前商品数重新计算容量
+     */
+    @Scheduled(initialDelayString = "${seckill.goods-filter.rebuild-interval:300000}",
+            fixedDelayString = "${seckill.goods-filter.rebuild-interval:300000}")
+    public void rebuildGoodsIdFilter() {
+        synchronized (goodsIdFilterLock) {
+            LongBloomFilter filter = buildGoodsIdFilter();
+            if (filter != null) {
+                goodsIdFilter = filter;
+            }
+        }
+    }
+
+    private void onGoodsAdded(Long goodsId) {
+        if (goodsId == null) {
+            return;
+        }
+        synchronized (goodsIdFilterLock) {
+            if (goodsIdFilter != null) {
+                goodsIdFilter.put(goodsId);
+            }
+        }
+        notExistGoods.remove(goodsId);
+    }
+
+    /**
+     * 商品ID是否确定不存在：布隆过滤器判定不存在，或者命中未过期的负缓存
+     */
+    private boolean isKnownNotExist(Long goodsId) {
+        LongBloomFilter filter = goodsIdFilter;
+        if (filter == null) {
+            synchronized (goodsIdFilterLock) {
+                if (goodsIdFilter == null) {
+                    goodsIdFilter = buildGoodsIdFilter();
+                }
+                filter = goodsIdFilter;
+            }
+        }
+        if (filter != null && !filter.mightContain(goodsId)) {
+            return true;
+        }
+        Long expireAt = notExistGoods.get(goodsId);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt > System.currentTimeMillis()) {
+            return true;
+        }
+        notExistGoods.remove(goodsId, expireAt);
+        return false;
+    }
+
+    private void markNotExist(Long goodsId) {
+        if (notExistGoods.size() >= NOT_EXIST_CACHE_LIMIT) {
+            notExistGoods.clear();
+        }
+        notExistGoods.put(goodsId, System.currentTimeMillis() + negativeTtlMillis);
+    }
+
+    /**
+     * 查询全部商品ID构建布隆过滤器，容量按当前商品数的两倍预留；数据库不可用时返回null
+     */
+    private LongBloomFilter buildGoodsIdFilter() {
+        try {
+            List<Long> ids = listObjs(new QueryWrapper<Goods>().select("id"), id -> ((Number) id).longValue());
+            LongBloomFilter filter = new LongBloomFilter(Math.max(ids.size() * 2L, 1024), filterFpp);
+            ids.forEach(filter::put);
+            log.info("商品ID布隆过滤器构建完成，共 {} 个商品", ids.size());
+            return filter;
+        } catch (Exception e) {
+            log.warn("商品ID布隆过滤器构建失败：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取商品详情缓存及剩余有效期，Redis不可用时视为未命中
+     */
+    @SuppressWarnings("unchecked")
+    private CachedGoods readCache(Long goodsId) {
+        String key = "goodsDetail:" + goodsId;
+        List<Object> results;
+        try {
+            results = goodsVoRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    operations.opsForValue().get(key);
+                    operations.getExpire(key, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("读取商品详情缓存失败：{}", e.getMessage());
+            return null;
+        }
+        if (results.size() < 2 || !(results.get(0) instanceof GoodsVo)) {
+            return null;
+        }
+        Long ttlMillis = (Long) results.get(1);
+        GoodsVo goods = (GoodsVo) results.get(0);
+        rememberLocal(goods);
+        return new CachedGoods(goods, ttlMillis == null ? -1 : ttlMillis);
+    }
+
+    private void rememberLocal(GoodsVo goods) {
+        if (localGoods.size() >= LOCAL_GOODS_LIMIT) {
+            localGoods.clear();
+        }
+        localGoods.put(goods.getId(), goods);
+    }
+
+    /**
+     * XFetch：loadCost * beta * -ln(random) >= 剩余有效期 时提前刷新
+     */
+    private boolean shouldRefreshEarly(long ttlMillis) {
+        if (ttlMillis < 0 || earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return loadCostMillis * earlyRefreshBeta * -Math.log(random) >= ttlMillis;
+    }
+
+    /**
+     * 等待持有锁的节点写入缓存，超时返回null
+     */
+    private GoodsVo waitForCache(Long goodsId) {
+        long deadline = System.currentTimeMillis() + lockWaitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            CachedGoods cached = readCache(goodsId);
+            if (cached != null) {
+                return cached.goods;
+            }
+        }
+        return null;
+    }
+
+    private static GoodsVo await(CompletableFuture<GoodsVo> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存中的商品详情及剩余有效期（毫秒）
+     */
+    private static final class CachedGoods {
+        private final GoodsVo goods;
+        private final long ttlMillis;
+
+        private CachedGoods(GoodsVo goods, long ttlMillis) {
+            this.goods = goods;
+            this.ttlMillis = ttlMillis;
+        }
+    }
+
+    /**
+     * 用Redis中的实时库存覆盖数据库中的库存
+     *
+     * 秒杀期间数据库库存由MQ消费者异步扣减，会落后于Redis预减后的库存。
+     * 所有商品的库存key和售罄标记通过一次网络往返取回（key较多时分成多条 MGET 放在同一个pipeline中），
+     * 列表页耗时不随商品数量增长。
+     * Redis不可用时保留数据库中的库存。
+     */
+    private void mergeLiveStock(List<GoodsVo> goodsList) {
+        if (goodsList == null || goodsList.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(goodsList.size() * 2);
+        for (GoodsVo goods : goodsList) {
+            keys.add("seckillGoods:" + goods.getId());
+            keys.add("isStockEmpty:" + goods.getId());
+        }
+        Map<String, Long> values;
+        try {
+            values = RedisBatchUtil.multiGetLong(stringRedisTemplate, keys);
+        } catch (Exception e) {
+            log.warn("批量读取实时库存失败：{}", e.getMessage());
+            return;
+        }
+        for (GoodsVo goods : goodsList) {
+            if (values.containsKey("isStockEmpty:" + goods.getId())) {
+                goods.setStockCount(0);
+                continue;
+            }
+            Long stock = values.get("seckillGoods:" + goods.getId());
+            if (stock != null) {
+                goods.setStockCount((int) Math.max(0, stock));
+            }
+        }
+    }
+}
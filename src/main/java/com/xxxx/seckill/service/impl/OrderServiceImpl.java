@@ -1,10 +1,64 @@
 package com.xxxx.seckill.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.xxxx.seckill.entity.Order;
+import com.xxxx.seckill.entity.SeckillOrder;
+import com.xxxx.seckill.datasource.ReadYourWritesGuard;
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.exception.GlobalException;
+import com.xxxx.seckill.service.IGoodsService;
 import com.xxxx.seckill.service.IOrderService;
+import com.xxxx.seckill.service.ISeckillGoodsService;
+import com.xxxx.seckill.service.ISeckillOrderService;
 import com.xxxx.seckill.mapper.OrderMapper;
+import com.xxxx.seckill.sharding.ShardIdGenerator;
+import com.xxxx.seckill.sharding.ShardRouter;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.utils.RedisBatchUtil;
+import com.xxxx.seckill.vo.OrderDetailVo;
+import com.xxxx.seckill.vo.OrderItemVo;
+import com.xxxx.seckill.vo.OrderPageVo;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
 * @author ubuntu
@@ -12,11 +66,474 @@ import org.springframework.stereotype.Service;
 * @createDate 2025-09-27 21:55:23
 */
 @Service
+@Slf4j
 public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order>
     implements IOrderService {
 
-}
+    @Autowired
+    @Qualifier("seckillGoodsServiceImpl")
+    private ISeckillGoodsService seckillGoodsService;
+
+    @Autowired
+    @Qualifier("seckillOrderServiceImpl")
+    private ISeckillOrderService seckillOrderService;
+
+    @Autowired
+    @Qualifier("goodsServiceImpl")
+    private IGoodsService goodsService;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private RedisTemplate<String, OrderDetailVo> orderDetailRedisTemplate;
+
+    /**
+     * 订单详情缓存有效期（秒）
+     */
+    @Value("${seckill.order-detail.ttl:3600}")
+    private long orderDetailTtlSeconds;
+
+    @Autowired
+    private RedisTemplate<String, OrderPageVo> orderPageRedisTemplate;
+
+    @Autowired
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardIdGenerator shardIdGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 订单列表首页缓存有效期（秒）
+     */
+    @Value("${seckill.order-list.first-page-ttl:300}")
+    private long firstPageTtlSeconds;
+
+    /**
+     * 订单列表每页数量
+     */
+    private static final int ORDER_PAGE_SIZE = 20;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("orderPayScript")
+    private RedisScript<Long> orderPayScript;
+
+    /**
+     * 支付流：每条记录是一次待写回数据库的支付
+     */
+    private static final String PAY_STREAM_KEY = "orderPayStream";
+
+    private static final String PAY_GROUP = "orderPayFlusher";
+
+    private static final int STATUS_UNPAID = 0;
+
+    private static final int STATUS_PAID = 1;
 
+    /**
+     * 每批写回的支付记录数
+     */
+    @Value("${seckill.order-pay.batch-size:500}")
+    private int payBatchSize;
 
+    /**
+     * 未确认的支付记录超过该时间（毫秒）后由其他节点接管
+     */
+    @Value("${seckill.order-pay.claim-idle:30000}")
+    private long claimIdleMillis;
 
+    /**
+     * Redis中订单状态的保留时间（毫秒），写回数据库后仍保留一段时间供查询
+     */
+    @Value("${seckill.order-pay.status-ttl:86400000}")
+    private long statusTtlMillis;
 
+    /**
+     * 当前节点在消费组中的名称
+     */
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
+
+    private volatile boolean payGroupReady;
+
+    /**
+     * 秒杀下单
+     *
+     * 由MQ消费者调用：扣减秒杀库存 -> 生成订单 -> 生成秒杀订单，三步在同一事务内完成。
+     * 库存扣减带 stock_count > 0 条件，数据库层面兜底防止超卖。
+     * 启用分表时订单和秒杀订单使用分片感知的ID，写入用户所在分片的物理表。
+     *
+     * 启用库存合并扣减时，扣减在独立事务中按批提交，必须在下单事务开始前完成
+     * （下单事务会占用一个数据库连接，在事务中等待批次提交可能耗尽连接池）；
+     * 下单事务失败时归还已扣减的库存。
+     */
+    @Override
+    public Order seckill(User user, GoodsVo goods) {
+        if (seckillGoodsService.isStockAggregationEnabled()) {
+            if (!seckillGoodsService.decrementStock(goods.getId())) {
+                markStockEmpty(goods.getId());
+                return null;
+            }
+            try {
+                return transactionTemplate.execute(status -> createOrder(user, goods));
+            } catch (RuntimeException e) {
+                seckillGoodsService.restoreStock(goods.getId());
+                throw e;
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            // 秒杀商品表减库存
+            if (!seckillGoodsService.decrementStock(goods.getId())) {
+                markStockEmpty(goods.getId());
+                return null;
+            }
+            return createOrder(user, goods);
+        });
+    }
+
+    /**
+     * 库存已经卖完，标记后供查询秒杀结果使用
+     */
+    private void markStockEmpty(Long goodsId) {
+        stringRedisTemplate.opsForValue().set("isStockEmpty:" + goodsId, "0");
+    }
+
+    /**
+     * 生成订单和秒杀订单，在下单事务中调用
+     */
+    private Order createOrder(User user, GoodsVo goods) {
+        // 生成订单
+        Order order = new Order();
+        order.setUserId(user.getId());
+        order.setGoodsId(goods.getId());
+        order.setDeliveryAddrId(0L);
+        order.setGoodsName(goods.getGoodsName());
+        order.setGoodsCount(1);
+        order.setGoodsPrice(goods.getSeckillPrice());
+        order.setOrderChannel(1);
+        order.setStatus(0);
+        order.setCreateDate(new Date());
+        // 生成秒杀订单
+        SeckillOrder seckillOrder = new SeckillOrder();
+        seckillOrder.setUserId(user.getId());
+        seckillOrder.setGoodsId(goods.getId());
+        if (shardRouter.isEnabled()) {
+            order.setId(shardIdGenerator.nextOrderId(user.getId()));
+            seckillOrder.setId(shardIdGenerator.nextSeckillOrderId(user.getId()));
+        }
+        shardRouter.withUser(user.getId(), () -> {
+            orderMapper.insert(order);
+            seckillOrder.setOrderId(order.getId());
+            return seckillOrderService.save(seckillOrder);
+        });
+        // 事务提交后缓存订单详情、清除订单列表首页缓存，下单用户随后查看订单不需要再查数据库
+        afterOrderCommitted(new OrderDetailVo(order, goods));
+        stringRedisTemplate.opsForValue().set("order:" + user.getId() + ":" + goods.getId(),
+                String.valueOf(order.getId()));
+        return order;
+    }
+
+    /**
+     * 确认订单支付
+     *
+     * 支付结果先写入Redis（订单状态 + 支付流），立即返回；
+     * 由 flushPayments 定时从支付流批量写回 t_order，支付高峰时不会逐单更新数据库。
+     */
+    @Override
+    public RespBean pay(User user, Long orderId) {
+        Order order = getOrderDetail(user, orderId).getOrder();
+        if (order.getStatus() != null && order.getStatus() == STATUS_PAID) {
+            return RespBean.success();
+        }
+        if (order.getStatus() == null || order.getStatus() != STATUS_UNPAID) {
+            throw new GlobalException(RespBeanEnum.ORDER_STATUS_ERROR);
+        }
+        // 状态key已存在说明支付已经记录过，同样返回成功
+        stringRedisTemplate.execute(orderPayScript, Arrays.asList("orderStatus:" + orderId, PAY_STREAM_KEY),
+                String.valueOf(orderId), String.valueOf(STATUS_PAID), String.valueOf(System.currentTimeMillis()),
+                String.valueOf(statusTtlMillis));
+        return RespBean.success();
+    }
+
+    /**
+     * 获取订单详情
+     *
+     * 订单详情在下单事务提交后写入缓存，缓存未命中时按主键分别查询订单和商品（商品走商品详情缓存），
+     * 不关联查询。归属校验在内存中完成。未支付订单叠加Redis中尚未写回数据库的支付状态。
+     */
+    @Override
+    public OrderDetailVo getOrderDetail(User user, Long orderId) {
+        OrderDetailVo detail = findOrderDetail(orderId);
+        if (detail == null || !user.getId().equals(detail.getOrder().getUserId())) {
+            throw new GlobalException(RespBeanEnum.ORDER_NOT_EXIST);
+        }
+        return detail;
+    }
+
+    private OrderDetailVo findOrderDetail(Long orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        OrderDetailVo detail = null;
+        try {
+            detail = orderDetailRedisTemplate.opsForValue().get("orderDetail:" + orderId);
+        } catch (DataAccessException e) {
+            log.warn("读取订单详情缓存失败：{}", e.getMessage());
+        }
+        if (detail == null) {
+            Order order = shardRouter.withOrder(orderId, () -> getById(orderId));
+            if (order == null) {
+                return null;
+            }
+            detail = new OrderDetailVo(order, goodsService.findGoodsVoByGoodsId(order.getGoodsId()));
+            cacheOrderDetail(detail);
+        }
+        applyPayStatus(detail.getOrder());
+        return detail;
+    }
+
+    /**
+     * 获取用户订单列表
+     *
+     * 首页（cursor为空）是访问最多的一页，按用户缓存，新订单提交后清除；
+     * 其他页走 (user_id, id) 索引的游标分页查询。未支付订单通过一次 MGET 叠加支付状态。
+     */
+    @Override
+    public OrderPageVo findOrderPage(User user, Long cursor) {
+        String cacheKey = "orderList:" + user.getId();
+        OrderPageVo page = null;
+        if (cursor == null) {
+            try {
+                page = orderPageRedisTemplate.opsForValue().get(cacheKey);
+            } catch (DataAccessException e) {
+                log.warn("读取订单列表缓存失败：{}", e.getMessage());
+            }
+        }
+        if (page == null) {
+            // 多查一条用来判断是否还有下一页
+            List<OrderItemVo> orders = shardRouter.withUser(user.getId(),
+                    () -> orderMapper.findOrderItemPage(user.getId(), cursor, ORDER_PAGE_SIZE + 1));
+            Long nextCursor = null;
+            if (orders.size() > ORDER_PAGE_SIZE) {
+                orders = new ArrayList<>(orders.subList(0, ORDER_PAGE_SIZE));
+                nextCursor = orders.get(ORDER_PAGE_SIZE - 1).getId();
+            }
+            page = new OrderPageVo(orders, nextCursor);
+            if (cursor == null) {
+                try {
+                    orderPageRedisTemplate.opsForValue().set(cacheKey, page, firstPageTtlSeconds, TimeUnit.SECONDS);
+                } catch (DataAccessException e) {
+                    log.warn("写入订单列表缓存失败：{}", e.getMessage());
+                }
+            }
+        }
+        applyPayStatus(page.getOrders());
+        return page;
+    }
+
+    /**
+     * 查询某个商品的全部订单（后台对账使用）
+     *
+     * 订单按用户分表，不带用户ID的查询需要依次查询每个分片再合并，结果按订单ID倒序。
+     */
+    @Override
+    public List<Order> findOrdersByGoodsId(Long goodsId) {
+        List<Order> orders = shardRouter.scatterGather(shard -> orderMapper.selectList(new QueryWrapper<Order>()
+                .eq("goods_id", goodsId)));
+        orders.sort(Comparator.comparing(Order::getId).reversed());
+        return orders;
+    }
+
+    /**
+     * 未支付的订单叠加Redis中的支付状态（值为 状态:支付时间）
+     */
+    private void applyPayStatus(Order order) {
+        if (order.getStatus() == null || order.getStatus() != STATUS_UNPAID) {
+            return;
+        }
+        String value;
+        try {
+            value = stringRedisTemplate.opsForValue().get("orderStatus:" + order.getId());
+        } catch (DataAccessException e) {
+            log.warn("读取订单支付状态失败：{}", e.getMessage());
+            return;
+        }
+        if (value != null) {
+            order.setStatus(parseStatus(value));
+            order.setPayDate(parsePayDate(value));
+        }
+    }
+
+    private void applyPayStatus(List<OrderItemVo> orders) {
+        List<String> keys = new ArrayList<>();
+        for (OrderItemVo order : orders) {
+            if (order.getStatus() != null && order.getStatus() == STATUS_UNPAID) {
+                keys.add("orderStatus:" + order.getId());
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        Map<String, String> values;
+        try {
+            values = RedisBatchUtil.multiGet(stringRedisTemplate, keys);
+        } catch (DataAccessException e) {
+            log.warn("读取订单支付状态失败：{}", e.getMessage());
+            return;
+        }
+        for (OrderItemVo order : orders) {
+            String value = values.get("orderStatus:" + order.getId());
+            if (value != null) {
+                order.setStatus(parseStatus(value));
+                order.setPayDate(parsePayDate(value));
+            }
+        }
+    }
+
+    private static Integer parseStatus(String value) {
+        int index = value.indexOf(':');
+        return Integer.parseInt(index < 0 ? value : value.substring(0, index));
+    }
+
+    private static Date parsePayDate(String value) {
+        int index = value.indexOf(':');
+        return index < 0 ? null : new Date(Long.parseLong(value.substring(index + 1)));
+    }
+
+    /**
+     * 下单事务提交后：缓存订单详情，清除该用户的订单列表首页缓存，
+     * 并标记该用户刚刚写入（读写分离时随后的订单查询走主库）
+     */
+    private void afterOrderCommitted(OrderDetailVo detail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onOrderCommitted(detail);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onOrderCommitted(detail);
+            }
+        });
+    }
+
+    private void onOrderCommitted(OrderDetailVo detail) {
+        cacheOrderDetail(detail);
+        readYourWritesGuard.markWrite(detail.getOrder().getUserId());
+        try {
+            orderPageRedisTemplate.delete("orderList:" + detail.getOrder().getUserId());
+        } catch (DataAccessException e) {
+            log.warn("清除订单列表缓存失败：{}", e.getMessage());
+        }
+    }
+
+    private void cacheOrderDetail(OrderDetailVo detail) {
+        try {
+            orderDetailRedisTemplate.opsForValue().set("orderDetail:" + detail.getOrder().getId(), detail,
+                    orderDetailTtlSeconds, TimeUnit.SECONDS);
+        } catch (DataAccessException e) {
+            log.warn("写入订单详情缓存失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时把支付流中的记录批量写回数据库
+     *
+     * 1. 先接管超过 claim-idle 仍未确认的记录（节点崩溃或上次写库失败遗留）
+     * 2. 再读取新记录，每批一条 UPDATE ... WHERE status = 0，重复写入没有副作用
+     * 3. 写库成功后 XACK 并删除记录；失败时不确认，等待下次接管重试
+     */
+    @Scheduled(fixedDelayString = "${seckill.order-pay.flush-interval:300}")
+    public void flushPayments() {
+        try {
+            ensurePayGroup();
+            List<MapRecord<String, Object, Object>> claimed = claimPendingPayments();
+            if (!claimed.isEmpty()) {
+                writePayments(claimed);
+            }
+            List<MapRecord<String, Object, Object>> records;
+            do {
+                records = stringRedisTemplate.opsForStream().read(Consumer.from(PAY_GROUP, consumerName),
+                        StreamReadOptions.empty().count(payBatchSize),
+                        StreamOffset.create(PAY_STREAM_KEY, ReadOffset.lastConsumed()));
+                if (records == null || records.isEmpty()) {
+                    return;
+                }
+                writePayments(records);
+            } while (records.size() >= payBatchSize);
+        } catch (Exception e) {
+            log.warn("支付记录写回失败，等待下次重试：{}", e.getMessage());
+        }
+    }
+
+    private void writePayments(List<MapRecord<String, Object, Object>> records) {
+        List<Order> batch = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            ids.add(record.getId());
+            try {
+                Order order = new Order();
+                order.setId(Long.parseLong((String) record.getValue().get("orderId")));
+                order.setPayDate(new Date(Long.parseLong((String) record.getValue().get("payDate"))));
+                batch.add(order);
+            } catch (RuntimeException e) {
+                log.warn("忽略无法解析的支付记录 {}：{}", record.getId(), record.getValue());
+            }
+        }
+        // 按订单ID所在分片分组，每个分片一条 UPDATE
+        Map<Integer, List<Order>> shards = new HashMap<>();
+        for (Order order : batch) {
+            shards.computeIfAbsent(shardRouter.isEnabled() ? shardRouter.shardOfOrder(order.getId()) : 0,
+                    shard -> new ArrayList<>()).add(order);
+        }
+        for (List<Order> shardBatch : shards.values()) {
+            shardRouter.withOrder(shardBatch.get(0).getId(), () -> orderMapper.batchUpdatePaid(shardBatch));
+        }
+        RecordId[] recordIds = ids.toArray(new RecordId[0]);
+        stringRedisTemplate.opsForStream().acknowledge(PAY_STREAM_KEY, PAY_GROUP, recordIds);
+        stringRedisTemplate.opsForStream().delete(PAY_STREAM_KEY, recordIds);
+    }
+
+    private List<MapRecord<String, Object, Object>> claimPendingPayments() {
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(PAY_STREAM_KEY, PAY_GROUP,
+                Range.unbounded(), payBatchSize);
+        List<RecordId> ids = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMillis) {
+                ids.add(message.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("接管 {} 条未确认的支付记录", ids.size());
+        return stringRedisTemplate.opsForStream().claim(PAY_STREAM_KEY, PAY_GROUP, consumerName,
+                Duration.ofMillis(claimIdleMillis), ids.toArray(new RecordId[0]));
+    }
+
+    /**
+     * 创建消费组，支付流不存在时一并创建
+     */
+    private void ensurePayGroup() {
+        if (payGroupReady) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) (RedisConnection connection) ->
+                    connection.streamCommands().xGroupCreate(PAY_STREAM_KEY.getBytes(StandardCharsets.UTF_8),
+                            PAY_GROUP, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        payGroupReady = true;
+    }
+}
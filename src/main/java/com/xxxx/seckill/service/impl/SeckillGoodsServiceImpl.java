@@ -1,10 +1,35 @@
 package com.xxxx.seckill.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.xxxx.seckill.entity.SeckillGoods;
 import com.xxxx.seckill.service.ISeckillGoodsService;
 import com.xxxx.seckill.mapper.SeckillGoodsMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
 * @author ubuntu
@@ -12,9 +37,273 @@ import org.springframework.stereotype.Service;
 * @createDate 2025-09-27 21:56:00
 */
 @Service
+@Slf4j
 public class SeckillGoodsServiceImpl extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
     implements ISeckillGoodsService {
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SeckillGoodsMapper seckillGoodsMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 是否合并同一商品的并发库存扣减
+     */
+    @Value("${seckill.stock-aggregation.enabled:false}")
+    private boolean aggregationEnabled;
+
+    /**
+     * 合并窗口（毫秒）：第一个扣减请求到达后最多等待该时间再提交
+     */
+    @Value("${seckill.stock-aggregation.window:5}")
+    private long aggregationWindowMillis;
+
+    /**
+     * 每批最多合并的扣减请求数，达到后立即提交
+     */
+    @Value("${seckill.stock-aggregation.max-batch:100}")
+    private int aggregationMaxBatch;
+
+    /**
+     * 执行合并扣减的线程数，不同商品的批次可以并行提交
+     */
+    @Value("${seckill.stock-aggregation.threads:4}")
+    private int aggregationThreads;
+
+    /**
+     * 一批扣减提交到数据库的最长耗时（毫秒），等待扣减结果最多 合并窗口 + 该时间
+     */
+    @Value("${seckill.stock-aggregation.commit-timeout:3000}")
+    private long aggregationCommitTimeoutMillis;
+
+    /**
+     * 每个商品当前正在收集的批次
+     */
+    private final ConcurrentHashMap<Long, StockBatch> stockBatches = new ConcurrentHashMap<>();
+
+    /**
+     * 每个商品正在提交的批次数，只在 stockBatches.compute 中修改
+     */
+    private final ConcurrentHashMap<Long, AtomicInteger> flushingBatches = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService stockFlusher;
+
+    /**
+     * 系统启动完成后把秒杀库存加载到Redis
+     *
+     * 使用 setIfAbsent：多节点部署或活动中途重启时不会把已扣减的库存重置回去。
+     * 数据库或Redis不可用时只记录日志，不影响应用启动。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void loadStockToRedis() {
+        try {
+            List<SeckillGoods> list = list();
+            for (SeckillGoods seckillGoods : list) {
+                stringRedisTemplate.opsForValue().setIfAbsent("seckillGoods:" + seckillGoods.getGoodsId(),
+                        String.valueOf(seckillGoods.getStockCount()));
+            }
+            log.info("秒杀库存预热完成，共 {} 个商品", list.size());
+        } catch (Exception e) {
+            log.warn("秒杀库存预热失败：{}", e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void startStockFlusher() {
+        if (!aggregationEnabled) {
+            return;
+        }
+        AtomicInteger index = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(aggregationThreads, r -> {
+            Thread thread = new Thread(r, "stock-aggregator-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        stockFlusher = executor;
+    }
+
+    @PreDestroy
+    public void stopStockFlusher() {
+        if (stockFlusher != null) {
+            stockFlusher.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isStockAggregationEnabled() {
+        return aggregationEnabled;
+    }
+
+    /**
+     * 扣减一件秒杀库存
+     *
+     * 热门商品的 t_seckill_goods 只有一行，逐单 UPDATE 会在这一行的行锁上排队。
+     * 启用合并扣减后，同一商品在合并窗口内（或凑满 max-batch 个）的扣减请求合并为一条
+     * stock_count = stock_count - k，行锁加锁次数降为原来的 1/k，结果再逐个通知等待的下单线程。
+     *
+     * 只有该商品已有批次正在提交时，新批次才等待合并窗口；没有其它批次在提交时立即提交。
+     * 单个调用方（例如并发度为1的MQ消费者、每个分区一个消费者）每次都立即提交，
+     * 不会为了等待不存在的并发请求而每单多等一个窗口。
+     */
+    @Override
+    public boolean decrementStock(Long goodsId) {
+        if (!aggregationEnabled) {
+            return update(new UpdateWrapper<SeckillGoods>()
+                    .setSql("stock_count = stock_count - 1")
+                    .eq("goods_id", goodsId)
+                    .gt("stock_count", 0));
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        StockBatch[] ready = new StockBatch[1];
+        stockBatches.compute(goodsId, (id, current) -> {
+            StockBatch batch = current;
+            boolean flushNow = false;
+            if (batch == null) {
+                batch = new StockBatch(id);
+                if (flushingBatches.computeIfAbsent(id, key -> new AtomicInteger()).get() > 0) {
+                    StockBatch created = batch;
+                    try {
+                        created.timer = stockFlusher.schedule(() -> flushStockBatch(created),
+                                aggregationWindowMillis, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        // 定时线程池已关闭（应用停止中），由当前线程直接提交，不让请求无限等待
+                        flushNow = true;
+                    }
+                } else {
+                    flushNow = true;
+                }
+            }
+            batch.waiters.add(result);
+            if (flushNow || batch.waiters.size() >= aggregationMaxBatch) {
+                ready[0] = batch;
+            }
+            return batch;
+        });
+        if (ready[0] != null) {
+            // 没有其它批次在提交或批次已满，由当前线程直接提交
+            if (ready[0].timer != null) {
+                ready[0].timer.cancel(false);
+            }
+            flushStockBatch(ready[0]);
+        }
+        try {
+            try {
+                return result.get(aggregationWindowMillis + aggregationCommitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 放弃等待，由MQ重试；批次之后提交成功的，这件库存由 commitStockBatch 加回数据库
+                if (result.completeExceptionally(e)) {
+                    throw new IllegalStateException("等待商品 " + goodsId + " 的库存扣减结果超时", e);
+                }
+                // 结果恰好在超时的同时到达
+                return result.get();
+            }
+        } catch (InterruptedException e) {
+            result.completeExceptionally(e);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待库存扣减结果被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void restoreStock(Long goodsId) {
+        seckillGoodsMapper.increaseStock(goodsId, 1);
+    }
+
+    /**
+     * 提交一批扣减，提交期间同一商品的新批次等待合并窗口
+     */
+    private void flushStockBatch(StockBatch batch) {
+        // 定时提交与立即提交可能同时触发，只处理一次；从收集表中移除后不会再有请求加入该批次
+        boolean[] claimed = new boolean[1];
+        stockBatches.compute(batch.goodsId, (id, current) -> {
+            if (batch.flushed.compareAndSet(false, true)) {
+                claimed[0] = true;
+                flushingBatches.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            }
+            return current == batch ? null : current;
+        });
+        if (!claimed[0]) {
+            return;
+        }
+        try {
+            commitStockBatch(batch);
+        } finally {
+            stockBatches.compute(batch.goodsId, (id, current) -> {
+                flushingBatches.get(id).decrementAndGet();
+                return current;
+            });
+        }
+    }
+
+    /**
+     * 提交一批扣减并通知等待的线程
+     *
+     * 库存充足时一条 UPDATE 扣减整批；不足时锁定该行，把剩余库存按到达顺序分给前面的请求，
+     * 其余请求返回库存不足。
+     */
+    private void commitStockBatch(StockBatch batch) {
+        List<CompletableFuture<Boolean>> waiters = batch.waiters;
+        int granted;
+        try {
+            int count = waiters.size();
+            if (seckillGoodsMapper.decrementStock(batch.goodsId, count) > 0) {
+                granted = count;
+            } else {
+                Integer result = transactionTemplate.execute(status -> {
+                    Integer stock = seckillGoodsMapper.selectStockForUpdate(batch.goodsId);
+                    int available = stock == null ? 0 : Math.max(0, Math.min(stock, count));
+                    if (available > 0) {
+                        seckillGoodsMapper.decrementStock(batch.goodsId, available);
+                    }
+                    return available;
+                });
+                granted = result == null ? 0 : result;
+            }
+        } catch (RuntimeException e) {
+            log.warn("商品 {} 合并扣减库存失败：{}", batch.goodsId, e.getMessage());
+            waiters.forEach(waiter -> waiter.completeExceptionally(e));
+            return;
+        }
+        int abandoned = 0;
+        for (int i = 0; i < waiters.size(); i++) {
+            // 等待超时的请求已经放弃，分给它的库存没有人使用
+            if (!waiters.get(i).complete(i < granted) && i < granted) {
+                abandoned++;
+            }
+        }
+        if (abandoned > 0) {
+            log.warn("商品 {} 有 {} 个扣减请求等待超时，加回库存", batch.goodsId, abandoned);
+            try {
+                seckillGoodsMapper.increaseStock(batch.goodsId, abandoned);
+            } catch (RuntimeException e) {
+                log.error("商品 {} 加回 {} 件超时扣减的库存失败", batch.goodsId, abandoned, e);
+            }
+        }
+    }
+
+    /**
+     * 同一商品在一个合并窗口内的扣减请求，只在 stockBatches.compute 中修改；
+     * 立即提交的批次没有定时器
+     */
+    private static final class StockBatch {
+        private final Long goodsId;
+        private final List<CompletableFuture<Boolean>> waiters = new ArrayList<>();
+        private final AtomicBoolean flushed = new AtomicBoolean();
+        private ScheduledFuture<?> timer;
+
+        private StockBatch(Long goodsId) {
+            this.goodsId = goodsId;
+        }
+    }
 }
 
 
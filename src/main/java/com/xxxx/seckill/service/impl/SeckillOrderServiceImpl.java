@@ -1,9 +1,14 @@
 package com.xxxx.seckill.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.xxxx.seckill.entity.SeckillOrder;
+import com.xxxx.seckill.entity.User;
 import com.xxxx.seckill.service.ISeckillOrderService;
 import com.xxxx.seckill.mapper.SeckillOrderMapper;
+import com.xxxx.seckill.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 /**
@@ -15,6 +20,33 @@ import org.springframework.stereotype.Service;
 public class SeckillOrderServiceImpl extends ServiceImpl<SeckillOrderMapper, SeckillOrder>
     implements ISeckillOrderService {
 
+    @Autowired
+    private SeckillOrderMapper seckillOrderMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    /**
+     * 获取秒杀结果
+     * @return orderId：成功，-1：秒杀失败，0：排队中
+     */
+    @Override
+    public Long getResult(User user, Long goodsId) {
+        SeckillOrder seckillOrder = shardRouter.withUser(user.getId(), () ->
+                seckillOrderMapper.selectOne(new QueryWrapper<SeckillOrder>()
+                        .eq("user_id", user.getId())
+                        .eq("goods_id", goodsId)));
+        if (null != seckillOrder) {
+            return seckillOrder.getOrderId();
+        } else if (stringRedisTemplate.hasKey("isStockEmpty:" + goodsId)) {
+            return -1L;
+        } else {
+            return 0L;
+        }
+    }
 }
 
 
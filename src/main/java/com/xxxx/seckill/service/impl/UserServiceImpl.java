@@ -1,24 +1,45 @@
 package com.xxxx.seckill.service.impl;
 
+import com.xxxx.seckill.config.SessionTokenManager;
 import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.exception.GlobalException;
 import com.xxxx.seckill.mapper.UserMapper;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
 import com.xxxx.seckill.service.IUserService;
 import com.xxxx.seckill.utils.CookieUtil;
 import com.xxxx.seckill.utils.MD5Util;
+import com.xxxx.seckill.utils.PasswordVerifier;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
-import com.xxxx.seckill.utils.UUIDUtil;
+import com.xxxx.seckill.utils.TicketGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import com.xxxx.seckill.vo.LoginVo;
 import com.xxxx.seckill.vo.RespBean;
 import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.UserCredential;
+import com.xxxx.seckill.vo.UserLoginStat;
 
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * <p>
  * 用户服务实现类
@@ -41,6 +62,7 @@ import javax.servlet.http.HttpServletResponse;
  * @since 2025-09-07
  */
 @Service
+@Slf4j
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
 
     /**
@@ -51,21 +73,80 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     private UserMapper userMapper;
 
     /**
-     * Redis操作模板
-     * 用于用户会话缓存和分布式存储
+     * 会话用户缓存模板
+     * 用于用户会话缓存和分布式存储，key格式：user:ticket
+     */
+    @Autowired
+    private RedisTemplate<String, User> userRedisTemplate;
+
+    /**
+     * 登录凭证缓存模板，key格式：userCredential:mobile
      */
     @Autowired
-    private RedisTemplate redisTemplate;
+    private RedisTemplate<String, UserCredential> userCredentialRedisTemplate;
+
+    /**
+     * 用户的会话票据集合，key格式：userTickets:userId，修改密码时用于注销该用户的全部会话
+     */
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 无状态会话令牌，seckill.session.mode=token 时代替Redis会话
+     */
+    @Autowired
+    private SessionTokenManager sessionTokenManager;
+
+    /**
+     * 会话票据生成器，seckill.ticket.generator 切换实现
+     */
+    @Autowired
+    private TicketGenerator ticketGenerator;
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    /**
+     * 本地会话副本上限，超过后整体清空
+     */
+    private static final int RECENT_SESSION_LIMIT = 10000;
+
+    /**
+     * 最近校验通过的会话：票据 -> 用户，只在Redis熔断期间使用，已登录用户仍可浏览商品
+     */
+    private final Map<String, User> recentSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Redis会话有效期（秒），user:ticket 和 userTickets:userId 使用相同的过期时间
+     */
+    @Value("${seckill.session.ttl:86400}")
+    private long sessionTtlSeconds;
+
+    /**
+     * 登录凭证缓存有效期（分钟）
+     */
+    private static final long CREDENTIAL_EXPIRE_MINUTES = 30;
+
+    /**
+     * 单条批量更新语句包含的最大用户数
+     */
+    private static final int LOGIN_STAT_BATCH_SIZE = 500;
+
+    /**
+     * 尚未写回数据库的登录统计，key 为用户ID
+     */
+    private final Map<Long, UserLoginStat> pendingLoginStats = new ConcurrentHashMap<>();
 
     /**
      * 用户登录认证处理
      * <p>
      * 执行完整的登录流程：
-     * 1. 根据手机号查询用户信息
+     * 1. 根据手机号查询登录凭证（Redis缓存，未命中时查库）
      * 2. 验证密码正确性（双重MD5加密）
-     * 3. 生成唯一会话票据（UUID）
+     * 3. 生成唯一会话票据
      * 4. 将用户信息缓存到Redis
      * 5. 设置浏览器Cookie用于后续认证
+     * 6. 记录登录统计，异步批量写回数据库
      * </p>
      *
      * @param loginVo  登录请求对象，包含手机号和密码
@@ -75,30 +156,52 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      */
     @Override
     public RespBean doLogin(LoginVo loginVo, HttpServletRequest request, HttpServletResponse response) {
+        RespBean result = login(loginVo);
+        if (result.getCode() == RespBeanEnum.SUCCESS.getCode()) {
+            // 设置客户端Cookie，存储票据用于后续请求认证
+            CookieUtil.setCookie(request, response, "userTicket", (String) result.getObject());
+        }
+        return result;
+    }
+
+    @Override
+    public RespBean login(LoginVo loginVo) {
         String mobile = loginVo.getMobile();
         String password = loginVo.getPassword();
 
-        // 根据手机号获取用户（手机号作为主键）
-        User user = userMapper.selectById(mobile);
-        if (null == user) {
+        // 根据手机号获取登录凭证（手机号作为主键），优先读缓存
+        UserCredential credential = getCredential(mobile);
+        if (null == credential) {
             return RespBean.error(RespBeanEnum.LOGIN_ERROR);
         }
 
         // 验证密码：将前端传来的密码进行二次MD5加密后与数据库中的密码比较
         // 密码加密流程：明文密码 -> 前端MD5 -> 后端MD5+盐值 -> 数据库存储
-        if (!MD5Util.formPassToDBPass(password, user.getSalt()).equals(user.getPassword())) {
+        if (!PasswordVerifier.matches(password, credential.getSalt(), credential.getPassword())) {
             return RespBean.error(RespBeanEnum.LOGIN_ERROR);
         }
 
-        // 生成用户会话票据（全局唯一标识）
-        String ticket = UUIDUtil.uuid();
+        // 会话中只保存用户ID和昵称，不再把密码和盐值写入Redis
+        User user = new User();
+        user.setId(credential.getId());
+        user.setNickname(credential.getNickname());
 
-        // 将用户信息存储到Redis缓存，key格式：user:ticket
-        // 这样可以实现分布式环境下的会话共享
-        redisTemplate.opsForValue().set("user:" + ticket, user);
+        // 登录次数和最后登录时间先记在内存，定时批量写回数据库
+        recordLogin(user.getId());
 
-        // 设置客户端Cookie，存储票据用于后续请求认证
-        CookieUtil.setCookie(request, response, "userTicket", ticket);
+        String ticket;
+        if (sessionTokenManager.isEnabled()) {
+            // 令牌会话模式：票据本身就是签名后的用户信息，不写Redis
+            ticket = sessionTokenManager.issue(user);
+        } else {
+            // 生成用户会话票据（全局唯一标识）
+            ticket = ticketGenerator.next();
+
+            // 将用户信息存储到Redis缓存，key格式：user:ticket
+            // 这样可以实现分布式环境下的会话共享
+            userRedisTemplate.opsForValue().set("user:" + ticket, user, sessionTtlSeconds, TimeUnit.SECONDS);
+            registerTicket(user.getId(), ticket);
+        }
 
         return RespBean.success(ticket);
     }
@@ -130,16 +233,229 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             return null;
         }
 
+        // 令牌会话模式：本地验签
+        if (sessionTokenManager.isEnabled()) {
+            return sessionTokenManager.verify(userTicket);
+        }
+
+        // Redis熔断期间不访问Redis，使用本地会话副本
+        if (redisCircuitBreaker.isOpen()) {
+            return recentSessions.get(userTicket);
+        }
+
         // 从Redis缓存中根据票据获取用户信息
         // key格式：user:ticket，与登录时的存储格式保持一致
-        User user = (User) redisTemplate.opsForValue().get("user:" + userTicket);
+        User user = userRedisTemplate.opsForValue().get("user:" + userTicket);
 
         // 如果用户信息存在，刷新Cookie有效期
         // 这样可以为活跃用户自动延长会话时间
         if (user != null) {
             CookieUtil.setCookie(request, response, "userTicket", userTicket);
+            if (recentSessions.size() >= RECENT_SESSION_LIMIT) {
+                recentSessions.clear();
+            }
+            recentSessions.put(userTicket, user);
         }
 
         return user;
     }
+
+    /**
+     * 更新用户密码
+     * <p>
+     * 更新数据库后删除登录凭证缓存和该用户的全部会话（当前票据和 userTickets:userId 中登记的票据），
+     * 其他设备上的登录同样失效，用户需要使用新密码重新登录
+     * </p>
+     *
+     * @param userTicket 用户会话票据
+     * @param password   前端一次MD5后的新密码
+     * @return RespBean 统一响应对象
+     */
+    @Override
+    public RespBean updatePassword(String userTicket, String password, HttpServletRequest request,
+                                   HttpServletResponse response) {
+        User sessionUser = getUserByCookie(userTicket, request, response);
+        if (sessionUser == null) {
+            throw new GlobalException(RespBeanEnum.SESSION_ERROR);
+        }
+        if (!StringUtils.hasText(password)) {
+            return RespBean.error(RespBeanEnum.BIND_ERROR);
+        }
+        User user = userMapper.selectById(sessionUser.getId());
+        if (user == null) {
+            throw new GlobalException(RespBeanEnum.MOBILE_NOT_EXIST);
+        }
+        user.setPassword(MD5Util.formPassToDBPass(password, user.getSalt()));
+        if (userMapper.updateById(user) != 1) {
+            return RespBean.error(RespBeanEnum.PASSWORD_UPDATE_FAIL);
+        }
+        userCredentialRedisTemplate.delete("userCredential:" + user.getId());
+        if (sessionTokenManager.isEnabled()) {
+            sessionTokenManager.revoke(user.getId());
+        } else {
+            revokeSessions(user.getId(), userTicket);
+        }
+        return RespBean.success();
+    }
+
+    /**
+     * 退出登录：删除当前票据的Redis会话并从 userTickets:userId 中移除，同时删除Cookie
+     * <p>
+     * 令牌会话模式下令牌无法单独吊销，只删除Cookie
+     * </p>
+     *
+     * @param userTicket 用户会话票据，未登录时为null
+     */
+    @Override
+    public RespBean logout(String userTicket, HttpServletRequest request, HttpServletResponse response) {
+        CookieUtil.deleteCookie(request, response, "userTicket");
+        if (userTicket == null || sessionTokenManager.isEnabled()) {
+            return RespBean.success();
+        }
+        recentSessions.remove(userTicket);
+        User user = userRedisTemplate.opsForValue().get("user:" + userTicket);
+        userRedisTemplate.delete("user:" + userTicket);
+        if (user != null) {
+            stringRedisTemplate.opsForSet().remove("userTickets:" + user.getId(), userTicket);
+        }
+        return RespBean.success();
+    }
+
+    /**
+     * 登记用户的会话票据
+     * <p>
+     * 票据集合与会话使用相同的有效期，每次登录时续期，最后一个会话过期后集合随之过期；
+     * 同时清理集合中会话已经过期的票据，避免长期活跃的用户集合越来越大
+     * </p>
+     */
+    private void registerTicket(Long userId, String ticket) {
+        String ticketsKey = "userTickets:" + userId;
+        stringRedisTemplate.opsForSet().add(ticketsKey, ticket);
+        stringRedisTemplate.expire(ticketsKey, sessionTtlSeconds, TimeUnit.SECONDS);
+        Set<String> tickets = stringRedisTemplate.opsForSet().members(ticketsKey);
+        if (tickets == null || tickets.size() <= 1) {
+            return;
+        }
+        List<String> registered = new ArrayList<>(tickets);
+        List<String> sessionKeys = new ArrayList<>(registered.size());
+        for (String registeredTicket : registered) {
+            sessionKeys.add("user:" + registeredTicket);
+        }
+        // 会话值是JSON，这里只判断是否存在，按字符串读取即可
+        List<String> sessions = stringRedisTemplate.opsForValue().multiGet(sessionKeys);
+        if (sessions == null) {
+            return;
+        }
+        List<Object> expired = new ArrayList<>();
+        for (int i = 0; i < registered.size(); i++) {
+            if (sessions.get(i) == null && !ticket.equals(registered.get(i))) {
+                expired.add(registered.get(i));
+            }
+        }
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForSet().remove(ticketsKey, expired.toArray());
+        }
+    }
+
+    /**
+     * 删除用户的全部Redis会话和本地会话副本
+     */
+    private void revokeSessions(Long userId, String currentTicket) {
+        String ticketsKey = "userTickets:" + userId;
+        Set<String> tickets = stringRedisTemplate.opsForSet().members(ticketsKey);
+        List<String> keys = new ArrayList<>();
+        keys.add("user:" + currentTicket);
+        if (tickets != null) {
+            for (String ticket : tickets) {
+                keys.add("user:" + ticket);
+            }
+        }
+        userRedisTemplate.delete(keys);
+        stringRedisTemplate.delete(ticketsKey);
+        recentSessions.values().removeIf(session -> userId.equals(session.getId()));
+    }
+
+    /**
+     * 获取登录凭证
+     * <p>
+     * 登录高峰时大量请求集中在开售前几分钟，凭证缓存在Redis中，
+     * 重复登录、输错密码重试等情况不再访问数据库。密码修改时删除缓存。
+     * </p>
+     *
+     * @param mobile 手机号（用户ID）
+     * @return 登录凭证，用户不存在时返回null
+     */
+    private UserCredential getCredential(String mobile) {
+        String key = "userCredential:" + mobile;
+        UserCredential credential = userCredentialRedisTemplate.opsForValue().get(key);
+        if (credential != null) {
+            return credential;
+        }
+        User user = userMapper.selectById(mobile);
+        if (user == null) {
+            return null;
+        }
+        credential = new UserCredential(user.getId(), user.getNickname(), user.getSalt(), user.getPassword());
+        userCredentialRedisTemplate.opsForValue().set(key, credential, CREDENTIAL_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        return credential;
+    }
+
+    /**
+     * 在内存中累加登录统计
+     */
+    private void recordLogin(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        pendingLoginStats.compute(userId, (id, stat) -> {
+            if (stat == null) {
+                return new UserLoginStat(id, 1, now);
+            }
+            stat.setCount(stat.getCount() + 1);
+            stat.setLastLoginDate(now);
+            return stat;
+        });
+    }
+
+    /**
+     * 定时把登录统计批量写回数据库
+     * <p>
+     * 逐个 remove 取出待写数据，写回期间新产生的登录会进入下一批，不会丢失；
+     * 写库失败时把统计合并回内存，下次重试。
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${seckill.login-stats.flush-interval:3000}")
+    @PreDestroy
+    public void flushLoginStats() {
+        if (pendingLoginStats.isEmpty()) {
+            return;
+        }
+        List<UserLoginStat> batch = new ArrayList<>(Math.min(pendingLoginStats.size(), LOGIN_STAT_BATCH_SIZE));
+        for (Long userId : pendingLoginStats.keySet()) {
+            UserLoginStat stat = pendingLoginStats.remove(userId);
+            if (stat == null) {
+                continue;
+            }
+            batch.add(stat);
+            if (batch.size() >= LOGIN_STAT_BATCH_SIZE) {
+                writeLoginStats(batch);
+                batch = new ArrayList<>(LOGIN_STAT_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeLoginStats(batch);
+        }
+    }
+
+    private void writeLoginStats(List<UserLoginStat> batch) {
+        try {
+            userMapper.batchUpdateLoginStats(batch);
+        } catch (Exception e) {
+            log.warn("登录统计写回失败，{} 条记录下次重试：{}", batch.size(), e.getMessage());
+            for (UserLoginStat stat : batch) {
+                pendingLoginStats.merge(stat.getId(), stat, (current, failed) -> {
+                    current.setCount(current.getCount() + failed.getCount());
+                    return current;
+                });
+            }
+        }
+    }
 }
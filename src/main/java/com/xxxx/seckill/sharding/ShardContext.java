@@ -0,0 +1,24 @@
+package com.xxxx.seckill.sharding;
+
+/**
+ * 当前线程访问的分片序号，由 {@link ShardRouter} 设置，动态表名拦截器读取
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CONTEXT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer get() {
+        return CONTEXT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.xxxx.seckill.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 订单分表路由
+ *
+ * 配置 seckill.sharding.enabled=true 时，t_order、t_seckill_order 按 user_id 哈希拆分为
+ * table-count 张物理表（t_order_0 ... t_order_{n-1}），同一用户的订单和秒杀订单落在同一个分片序号。
+ *
+ * 路由规则：
+ * - 用户ID经过斐波那契哈希得到 0~1023 的槽位，分片序号 = 槽位 & (table-count - 1)
+ * - 订单ID的低10位保存槽位（见 {@link ShardIdGenerator}），按订单ID查询时无需知道用户ID
+ * - table-count 必须是不超过1024的2的幂
+ *
+ * 扩容只能翻倍，并且必须先迁移数据：table-count 从 n 变为 2n 后，槽位中第 n 位为1的行
+ * 路由到 t_order_{i+n}，这些行必须从 t_order_i 搬到 t_order_{i+n}（t_seckill_order 同理），
+ * 否则按用户或订单ID都查不到。槽位保存在订单ID中，迁移条件可以直接写成
+ * (id & 1023 & n) != 0（两张表的主键都由 {@link ShardIdGenerator} 生成），不需要重新计算用户哈希。
+ * 路由只看当前的 table-count，迁移完成前不要修改配置。
+ *
+ * 物理表结构与逻辑表相同，例如：CREATE TABLE t_order_0 LIKE t_order;
+ * 未启用时所有方法直接执行，SQL访问原表。
+ */
+@Component
+public class ShardRouter {
+
+    /**
+     * 订单ID中保存槽位的位数
+     */
+    public static final int SLOT_BITS = 10;
+
+    public static final int SLOT_COUNT = 1 << SLOT_BITS;
+
+    /**
+     * 按用户分表的逻辑表
+     */
+    private static final Set<String> SHARDED_TABLES = new HashSet<>();
+
+    static {
+        SHARDED_TABLES.add("t_order");
+        SHARDED_TABLES.add("t_seckill_order");
+    }
+
+    @Value("${seckill.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.sharding.table-count:4}")
+    private int tableCount;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && (tableCount <= 0 || tableCount > SLOT_COUNT || Integer.bitCount(tableCount) != 1)) {
+            throw new IllegalStateException("seckill.sharding.table-count 必须是不超过1024的2的幂：" + tableCount);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getTableCount() {
+        return enabled ? tableCount : 1;
+    }
+
+    /**
+     * 用户ID对应的槽位（0~1023）
+     */
+    public static int slotOf(long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - SLOT_BITS));
+    }
+
+    public int shardOfUser(Long userId) {
+        return slotOf(userId) & (tableCount - 1);
+    }
+
+    public int shardOfOrder(Long orderId) {
+        return (int) (orderId & (SLOT_COUNT - 1)) & (tableCount - 1);
+    }
+
+    /**
+     * 在用户所在分片上执行
+     */
+    public <T> T withUser(Long userId, Supplier<T> action) {
+        return enabled ? withShard(shardOfUser(userId), action) : action.get();
+    }
+
+    /**
+     * 在订单所在分片上执行
+     */
+    public <T> T withOrder(Long orderId, Supplier<T> action) {
+        return enabled ? withShard(shardOfOrder(orderId), action) : action.get();
+    }
+
+    /**
+     * 在每个分片上执行同样的查询并合并结果，用于不带用户ID的后台查询
+     */
+    public <T> List<T> scatterGather(IntFunction<? extends Collection<T>> query) {
+        if (!enabled) {
+            return new ArrayList<>(query.apply(0));
+        }
+        List<T> result = new ArrayList<>();
+        for (int shard = 0; shard < tableCount; shard++) {
+            int current = shard;
+            result.addAll(withShard(current, () -> query.apply(current)));
+        }
+        return result;
+    }
+
+    /**
+     * 逻辑表名转换为当前分片的物理表名，不分表的表原样返回
+     */
+    public String physicalTableName(String tableName) {
+        if (!SHARDED_TABLES.contains(tableName)) {
+            return tableName;
+        }
+        Integer shard = ShardContext.get();
+        if (shard == null) {
+            throw new IllegalStateException("访问分表 " + tableName + " 前必须通过 ShardRouter 指定分片");
+        }
+        return tableName + "_" + shard;
+    }
+
+    private <T> T withShard(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.xxxx.seckill.stock;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.rabbitmq.MQSender;
+import com.xxxx.seckill.rabbitmq.SeckillRequestIdempotency;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 秒杀下单前的公共流程，同步、异步、响应式三种秒杀控制器共用，控制器只负责参数绑定和准入控制：
+ * 1. Redis判断是否重复抢购
+ * 2. 按请求ID登记，重复提交直接返回排队中
+ * 3. 预减库存：Redis Lua脚本，或者启用租约时扣减本节点租用的库存
+ * 4. 发送秒杀消息，批量发送时最多等待一个批次的全部重发时间
+ *
+ * 没有发出消息时回补预减的库存并删除请求登记，用户可以重新抢购；批次在等待超时之后才失败的，
+ * 同样由回调回补。
+ *
+ * Redis访问走响应式API；租约续租和RabbitMQ发送是阻塞调用，异步模式下放到 seckillExecutor，
+ * 其余模式放到 boundedElastic 调度器执行。
+ */
+@Component
+@Slf4j
+public class SeckillFlow {
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Autowired
+    @Qualifier("stockDecrementScript")
+    private RedisScript<Long> stockDecrementScript;
+
+    @Autowired
+    private StockLeaseManager stockLeaseManager;
+
+    @Autowired
+    private SeckillRequestIdempotency seckillRequestIdempotency;
+
+    @Autowired
+    private MQSender mqSender;
+
+    @Autowired
+    @Qualifier("seckillExecutor")
+    private ObjectProvider<Executor> seckillExecutor;
+
+    private Scheduler blockingScheduler;
+
+    /**
+     * 内存标记，减少售罄后对Redis的访问
+     */
+    private final Map<Long, Boolean> emptyStockMap = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Executor executor = seckillExecutor.getIfAvailable();
+        blockingScheduler = executor != null ? Schedulers.fromExecutor(executor) : Schedulers.boundedElastic();
+    }
+
+    /**
+     * 本节点是否已确认售罄，售罄后直接返回，不访问Redis
+     */
+    public boolean isSoldOut(Long goodsId) {
+        return emptyStockMap.getOrDefault(goodsId, false);
+    }
+
+    /**
+     * 秒杀
+     *
+     * @return 0 表示排队中
+     */
+    public Mono<RespBean> seckill(User user, Long goodsId, long requestId) {
+        return reactiveStringRedisTemplate.hasKey("order:" + user.getId() + ":" + goodsId)
+                .flatMap(repeat -> {
+                    // 判断是否重复抢购
+                    if (Boolean.TRUE.equals(repeat)) {
+                        return Mono.just(RespBean.error(RespBeanEnum.REPEATE_ERROR));
+                    }
+                    return seckillRequestIdempotency.acceptRequestReactive(user.getId(), requestId)
+                            .flatMap(accepted -> {
+                                // 重复提交：第一次提交已经在排队，返回排队中，页面继续轮询结果
+                                if (!accepted) {
+                                    return Mono.just(RespBean.success(0));
+                                }
+                                // 没有发出秒杀消息时删除登记，允许用户重试
+                                Mono<Void> release = Mono.defer(() -> seckillRequestIdempotency
+                                        .releaseRequestReactive(user.getId(), requestId));
+                                return decrementAndSend(user, goodsId, requestId)
+                                        .onErrorResume(e -> release.then(Mono.error(e)))
+                                        .flatMap(result -> result.getCode() == RespBeanEnum.SUCCESS.getCode()
+                                                ? Mono.just(result) : release.thenReturn(result));
+                            });
+                });
+    }
+
+    /**
+     * 预减库存并发送秒杀消息
+     */
+    private Mono<RespBean> decrementAndSend(User user, Long goodsId, long requestId) {
+        // 本地租约大多数情况下不需要IO，只有续租时才会同步访问Redis
+        Mono<Long> decrement = stockLeaseManager.isEnabled()
+                ? Mono.fromCallable(() -> stockLeaseManager.tryAcquire(goodsId)).subscribeOn(blockingScheduler)
+                : reactiveStringRedisTemplate.execute(stockDecrementScript,
+                        Collections.singletonList(stockKey(goodsId))).next();
+        return decrement.flatMap(stock -> {
+            if (stock == -2) {
+                // 没有库存key：商品不存在或者不是秒杀商品，不做售罄标记，避免随机ID撑大内存标记
+                return Mono.just(RespBean.error(RespBeanEnum.GOODS_NOT_EXIST));
+            }
+            if (stock < 0) {
+                // 启用租约时-1只表示本节点租约用完，其他节点归还后还能再租，由租约自己定期重新检查Redis
+                if (!stockLeaseManager.isEnabled()) {
+                    emptyStockMap.put(goodsId, true);
+                }
+                return Mono.just(RespBean.error(RespBeanEnum.EMPTY_STOCK));
+            }
+            return send(user, goodsId, requestId);
+        });
+    }
+
+    /**
+     * 发送秒杀消息并等待broker确认
+     */
+    private Mono<RespBean> send(User user, Long goodsId, long requestId) {
+        return Mono.fromCallable(() -> mqSender.sendSeckillMessage(SeckillMessage.of(user, goodsId, requestId)))
+                .subscribeOn(blockingScheduler)
+                .onErrorResume(e -> {
+                    // 直接发送失败，消息肯定没有发出
+                    log.warn("发送秒杀消息失败，goodsId={}，requestId={}：{}", goodsId, requestId, e.getMessage());
+                    return restoreStock(goodsId).then(Mono.empty());
+                })
+                .flatMap(sent -> {
+                    // 批次最终失败时回补库存并删除登记，等待超时之后才失败的同样回补
+                    sent.whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            restoreStock(goodsId)
+                                    .then(seckillRequestIdempotency.releaseRequestReactive(user.getId(), requestId))
+                                    .subscribe();
+                        }
+                    });
+                    // 等待依赖的 future，超时取消时不会取消批次本身
+                    CompletableFuture<RespBean> confirmed = sent.thenApply(ignored -> RespBean.success(0));
+                    return Mono.fromFuture(confirmed)
+                            .onErrorReturn(RespBean.error(RespBeanEnum.SERVICE_BUSY))
+                            .timeout(Duration.ofMillis(mqSender.getConfirmWaitMillis()), Mono.fromSupplier(() -> {
+                                // 批次还在本地队列中或正在重发，返回排队中
+                                log.warn("等待秒杀消息确认超时，goodsId={}，requestId={}", goodsId, requestId);
+                                return RespBean.success(0);
+                            }));
+                })
+                .defaultIfEmpty(RespBean.error(RespBeanEnum.SERVICE_BUSY));
+    }
+
+    /**
+     * 把预减的库存加回Redis；启用租约时这件库存来自本节点的租约，同样加回Redis，由各节点重新租用
+     */
+    private Mono<Void> restoreStock(Long goodsId) {
+        return reactiveStringRedisTemplate.opsForValue().increment(stockKey(goodsId))
+                .doOnError(e -> log.error("回补商品 {} 的Redis库存失败", goodsId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static String stockKey(Long goodsId) {
+        return "seckillGoods:" + goodsId;
+    }
+}
@@ -0,0 +1,256 @@
+package com.xxxx.seckill.stock;
+
+import com.xxxx.seckill.service.IGoodsService;
+import com.xxxx.seckill.vo.GoodsVo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地库存租约
+ *
+ * 配置 seckill.stock-lease.enabled=true 时，每个节点按 block-size 从Redis库存中一次租用一段库存到本地计数器，
+ * 秒杀请求直接扣减本地计数器，不访问Redis：
+ * - 本地剩余不超过 refill-threshold 时异步续租，续租期间请求继续消耗剩余部分
+ * - 本地用完且Redis已售罄时返回售罄；本地用完但续租尚未完成时同步租用一次
+ * - 活动结束、租约空闲超过 idle-return，或节点关闭时，未用完的库存归还Redis
+ *
+ * 租用脚本按Redis剩余库存截断租用数量，所有节点租到的总数不会超过Redis库存，也就不会超过 t_seckill_goods.stock_count。
+ * 代价是售罄判断不再全局实时：其他节点持有的租约归还前，本节点可能提前返回售罄。
+ */
+@Component
+@Slf4j
+public class StockLeaseManager {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("stockLeaseScript")
+    private RedisScript<Long> stockLeaseScript;
+
+    @Autowired
+    @Qualifier("stockReturnScript")
+    private RedisScript<Long> stockReturnScript;
+
+    @Autowired
+    @Qualifier("goodsServiceImpl")
+    private IGoodsService goodsService;
+
+    @Value("${seckill.stock-lease.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 每次租用的库存数量
+     */
+    @Value("${seckill.stock-lease.block-size:50}")
+    private int blockSize;
+
+    /**
+     * 本地剩余库存不超过该值时异步续租
+     */
+    @Value("${seckill.stock-lease.refill-threshold:10}")
+    private int refillThreshold;
+
+    /**
+     * 租约空闲超过该时间（毫秒）后归还未用完的库存
+     */
+    @Value("${seckill.stock-lease.idle-return:10000}")
+    private long idleReturnMillis;
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    private ExecutorService refillExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger index = new AtomicInteger();
+        refillExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "stock-lease-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 扣减一件库存，返回值与预减库存脚本一致
+     *
+     * @return 本地租约剩余数量（>=0）：成功；-1：售罄；-2：库存未加载（商品不存在或者不是秒杀商品）
+     */
+    public long tryAcquire(Long goodsId) {
+        Lease lease = leases.computeIfAbsent(goodsId, Lease::new);
+        lease.lastAcquireMillis = System.currentTimeMillis();
+        while (true) {
+            int remaining = lease.remaining.get();
+            if (remaining > 0) {
+                if (lease.remaining.compareAndSet(remaining, remaining - 1)) {
+                    if (remaining - 1 <= refillThreshold && !lease.drained) {
+                        refillAsync(lease);
+                    }
+                    return remaining - 1;
+                }
+                continue;
+            }
+            if (lease.drained) {
+                return -1;
+            }
+            // 本地租约已用完：同一商品只有一个线程同步租用，其他线程等待后重新扣减
+            synchronized (lease) {
+                if (lease.remaining.get() > 0 || lease.drained) {
+                    continue;
+                }
+                long leased = lease(lease);
+                if (leased == -2) {
+                    leases.remove(goodsId, lease);
+                    return -2;
+                }
+            }
+        }
+    }
+
+    /**
+     * 定时归还空闲或活动已结束的租约，并让已售罄的租约重新检查Redis（其他节点可能归还了库存）
+     */
+    @Scheduled(fixedDelayString = "${seckill.stock-lease.check-interval:5000}")
+    public void returnIdleLeases() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            try {
+                if (now - lease.lastAcquireMillis >= idleReturnMillis || isSaleEnded(lease.goodsId, now)) {
+                    returnLease(lease);
+                }
+                lease.drained = false;
+            } catch (Exception e) {
+                log.warn("归还商品 {} 的库存租约失败：{}", lease.goodsId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 节点关闭时归还所有未用完的库存
+     */
+    @PreDestroy
+    public void returnAllLeases() {
+        if (!enabled) {
+            return;
+        }
+        refillExecutor.shutdown();
+        for (Lease lease : leases.values()) {
+            try {
+                returnLease(lease);
+            } catch (Exception e) {
+                log.warn("归还商品 {} 的库存租约失败：{}", lease.goodsId, e.getMessage());
+            }
+        }
+        leases.clear();
+    }
+
+    private void refillAsync(Lease lease) {
+        if (!lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    synchronized (lease) {
+                        if (lease.remaining.get() <= refillThreshold && !lease.drained) {
+                            lease(lease);
+                        }
+                    }
+                } catch (Exception e) {
+                    log.warn("商品 {} 续租库存失败：{}", lease.goodsId, e.getMessage());
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            lease.refilling.set(false);
+        }
+    }
+
+    /**
+     * 从Redis租用一段库存，调用方持有 lease 锁
+     *
+     * @return 租到的数量；-2：库存未加载
+     */
+    private long lease(Lease lease) {
+        Long leased = stringRedisTemplate.execute(stockLeaseScript,
+                Collections.singletonList("seckillGoods:" + lease.goodsId), String.valueOf(blockSize));
+        if (leased == null || leased == -2) {
+            return -2;
+        }
+        if (leased == 0) {
+            lease.drained = true;
+        } else {
+            lease.remaining.addAndGet(leased.intValue());
+        }
+        return leased;
+    }
+
+    private void returnLease(Lease lease) {
+        int unused = lease.remaining.getAndSet(0);
+        if (unused <= 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(stockReturnScript,
+                    Collections.singletonList("seckillGoods:" + lease.goodsId), String.valueOf(unused));
+        } catch (RuntimeException e) {
+            // 归还失败时放回本地，下次再试
+            lease.remaining.addAndGet(unused);
+            throw e;
+        }
+        log.info("商品 {} 归还 {} 件租用库存", lease.goodsId, unused);
+    }
+
+    private boolean isSaleEnded(Long goodsId, long now) {
+        GoodsVo goods = goodsService.findGoodsVoByGoodsId(goodsId);
+        return goods == null || (goods.getEndDate() != null && goods.getEndDate().before(new Date(now)));
+    }
+
+    /**
+     * 单个商品在本节点的租约
+     */
+    private static final class Lease {
+        private final Long goodsId;
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        /**
+         * Redis库存已被租完，本地用完即售罄
+         */
+        private volatile boolean drained;
+        private volatile long lastAcquireMillis;
+
+        private Lease(Long goodsId) {
+            this.goodsId = goodsId;
+        }
+    }
+}
@@ -7,14 +7,46 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Cookie工具类
  *
+ * 已登录用户每次请求都会刷新 userTicket，这里是每个页面都会经过的热点路径：
+ * - 域名按 Host 缓存，IP 判断使用预编译的正则，不再每次解析整个请求URL
+ * - 直接输出 Set-Cookie 响应头
+ * - 不设置有效期且请求中已带有相同值的Cookie时，跳过写入
+ *
  * @ClassName: CookieUtil
  */
+@Slf4j
 public final class CookieUtil {
 
+    private static final Pattern IPV4 = Pattern.compile("\\d+\\.\\d+\\.\\d+\\.\\d+");
+
+    /**
+     * 不需要设置 Domain 属性（localhost、IP访问）
+     */
+    private static final String NO_DOMAIN = "";
+
+    /**
+     * Host -> Cookie域名 缓存，超过上限后整体清空，防止伪造Host头撑大缓存
+     */
+    private static final int DOMAIN_CACHE_LIMIT = 256;
+
+    private static final Map<String, String> DOMAIN_CACHE = new ConcurrentHashMap<>();
+
+    private CookieUtil() {
+    }
+
     /**
      * 得到Cookie的值, 不编码
      *
@@ -73,7 +105,7 @@ public final class CookieUtil {
                 }
             }
         } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
+            log.error("Cookie解码失败", e);
         }
         return retValue;
     }
@@ -131,18 +163,14 @@ public final class CookieUtil {
      *
      * @param cookieMaxage cookie生效的最大秒数
      */
-    private static final void doSetCookie(HttpServletRequest request, HttpServletResponse response,
-                                          String cookieName, String cookieValue, int cookieMaxage, boolean isEncode) {
-        try {
-            if (cookieValue == null) {
-                cookieValue = "";
-            } else if (isEncode) {
-                cookieValue = URLEncoder.encode(cookieValue, "utf-8");
-            }
-            setCookieImpl(request, response, cookieName, cookieValue, cookieMaxage);
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static void doSetCookie(HttpServletRequest request, HttpServletResponse response,
+                                    String cookieName, String cookieValue, int cookieMaxage, boolean isEncode) {
+        if (cookieValue == null) {
+            cookieValue = "";
+        } else if (isEncode) {
+            cookieValue = URLEncoder.encode(cookieValue, StandardCharsets.UTF_8);
         }
+        setCookieImpl(request, response, cookieName, cookieValue, cookieMaxage);
     }
 
     /**
@@ -150,8 +178,8 @@ public final class CookieUtil {
      *
      * @param cookieMaxage cookie生效的最大秒数
      */
-    private static final void doSetCookie(HttpServletRequest request, HttpServletResponse response,
-                                          String cookieName, String cookieValue, int cookieMaxage, String encodeString) {
+    private static void doSetCookie(HttpServletRequest request, HttpServletResponse response,
+                                    String cookieName, String cookieValue, int cookieMaxage, String encodeString) {
         try {
             if (cookieValue == null) {
                 cookieValue = "";
@@ -159,87 +187,97 @@ public final class CookieUtil {
                 cookieValue = URLEncoder.encode(cookieValue, encodeString);
             }
             setCookieImpl(request, response, cookieName, cookieValue, cookieMaxage);
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (UnsupportedEncodingException e) {
+            log.error("Cookie编码失败", e);
         }
     }
 
-    private static void setCookieImpl(HttpServletRequest request, HttpServletResponse response, String cookieName, String cookieValue, int cookieMaxage) {
-        Cookie cookie = new Cookie(cookieName, cookieValue);
-        if (cookieMaxage > 0) {
-            cookie.setMaxAge(cookieMaxage);
+    private static void setCookieImpl(HttpServletRequest request, HttpServletResponse response, String cookieName,
+                                      String cookieValue, int cookieMaxage) {
+        // 会话Cookie且浏览器已经持有相同的值，重复下发没有任何效果
+        if (cookieMaxage <= 0 && request != null && cookieValue.equals(getCookieValue(request, cookieName))) {
+            return;
         }
-        if (null != request) {// 设置域名的cookie
-            String domainName = getDomainName(request);
-            System.out.println(domainName);
-            // 检查是否为IP地址（去掉端口号后检查）
-            String hostWithoutPort = domainName;
-            if (domainName.contains(":")) {
-                hostWithoutPort = domainName.substring(0, domainName.indexOf(":"));
+        String domainName = request == null ? NO_DOMAIN : getDomainName(request);
+        if (!isSafeCookieValue(cookieValue)) {
+            // 含有非法字符时交给容器处理，由容器负责校验并报错
+            Cookie cookie = new Cookie(cookieName, cookieValue);
+            if (cookieMaxage > 0) {
+                cookie.setMaxAge(cookieMaxage);
             }
-            // 如果不是localhost且不是IP地址，才设置domain
-            if (!"localhost".equals(domainName) && !hostWithoutPort.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
+            if (!domainName.isEmpty()) {
                 cookie.setDomain(domainName);
             }
+            cookie.setPath("/");
+            response.addCookie(cookie);
+            return;
         }
-        cookie.setPath("/");
-        response.addCookie(cookie);
+        StringBuilder header = new StringBuilder(cookieName.length() + cookieValue.length() + 64);
+        header.append(cookieName).append('=').append(cookieValue);
+        if (cookieMaxage > 0) {
+            header.append("; Max-Age=").append(cookieMaxage)
+                    .append("; Expires=")
+                    .append(DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                            ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(cookieMaxage)));
+        }
+        if (!domainName.isEmpty()) {
+            header.append("; Domain=").append(domainName);
+        }
+        header.append("; Path=/");
+        response.addHeader("Set-Cookie", header.toString());
     }
 
     /**
-     * 得到cookie的域名
+     * 得到cookie的域名，localhost 和 IP 访问时返回空字符串（不设置 Domain）
      */
-    private static final String getDomainName(HttpServletRequest request) {
-        String domainName = null;
-        // 通过request对象获取访问的url地址
-        String serverName = request.getRequestURL().toString();
-        if (serverName.isEmpty()) {
-            domainName = "";
-        } else {
-            // 将url地下转换为小写
-            serverName = serverName.toLowerCase();
-            // 如果url地址是以http://开头  将http://截取
-            if (serverName.startsWith("http://")) {
-                serverName = serverName.substring(7);
-            }
-            int end = serverName.length();
-            // 判断url地址是否包含"/"
-            if (serverName.contains("/")) {
-                //得到第一个"/"出现的位置
-                end = serverName.indexOf("/");
+    private static String getDomainName(HttpServletRequest request) {
+        String serverName = request.getServerName();
+        if (serverName == null || serverName.isEmpty()) {
+            return NO_DOMAIN;
+        }
+        String domainName = DOMAIN_CACHE.get(serverName);
+        if (domainName == null) {
+            domainName = resolveDomainName(serverName);
+            if (DOMAIN_CACHE.size() >= DOMAIN_CACHE_LIMIT) {
+                DOMAIN_CACHE.clear();
             }
+            DOMAIN_CACHE.put(serverName, domainName);
+        }
+        return domainName;
+    }
 
-            // 截取
-            serverName = serverName.substring(0, end);
-            
-            // 检查是否为IP地址（包括端口号的情况）
-            String hostWithoutPort = serverName;
-            if (serverName.contains(":")) {
-                hostWithoutPort = serverName.substring(0, serverName.indexOf(":"));
-            }
-            if (hostWithoutPort.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
-                // 如果是IP地址，直接返回，不设置domain
-                return serverName;
-            }
-            
-            // 根据"."进行分割
-            final String[] domains = serverName.split("\\.");
-            int len = domains.length;
-            if (len > 3) {
-                // www.xxx.com.cn
-                domainName = domains[len - 3] + "." + domains[len - 2] + "." + domains[len - 1];
-            } else if (len > 1) {
-                // xxx.com or xxx.cn
-                domainName = domains[len - 2] + "." + domains[len - 1];
-            } else {
-                domainName = serverName;
-            }
+    /**
+     * 根据 Host 计算 Cookie 域名
+     */
+    private static String resolveDomainName(String serverName) {
+        String host = serverName.toLowerCase(Locale.ROOT);
+        // IPv6 地址同样不设置 Domain
+        if ("localhost".equals(host) || host.indexOf(':') >= 0 || IPV4.matcher(host).matches()) {
+            return NO_DOMAIN;
         }
+        // 根据"."进行分割
+        String[] domains = host.split("\\.");
+        int len = domains.length;
+        if (len > 3) {
+            // www.xxx.com.cn
+            return domains[len - 3] + "." + domains[len - 2] + "." + domains[len - 1];
+        } else if (len > 1) {
+            // xxx.com or xxx.cn
+            return domains[len - 2] + "." + domains[len - 1];
+        }
+        return host;
+    }
 
-        if (domainName.indexOf(":") > 0) {
-            String[] ary = domainName.split("\\:");
-            domainName = ary[0];
+    /**
+     * RFC 6265 cookie-octet 校验，防止响应头注入
+     */
+    private static boolean isSafeCookieValue(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x21 || c > 0x7e || c == '"' || c == ',' || c == ';' || c == '\\') {
+                return false;
+            }
         }
-        return domainName;
+        return true;
     }
 }
@@ -0,0 +1,111 @@
+package com.xxxx.seckill.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 登录密码校验
+ *
+ * 与 MD5Util.formPassToDBPass(formPass, salt).equals(dbPass) 结果完全一致，但针对登录高峰做了优化：
+ * 1. MessageDigest 和输入缓冲区按线程复用，不拼接字符串、不生成十六进制字符串
+ * 2. 盐值只取参与计算的字符（第0、2、5、4位）直接写入摘要，不拼接字符串。
+ *    每个用户的盐值不同，登录高峰时缓存几乎不会命中，因此不缓存盐值
+ * 3. 摘要结果直接与数据库中的十六进制密码逐字符比较，比较耗时与不匹配的位置无关
+ */
+public final class PasswordVerifier {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int MD5_LENGTH = 16;
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private PasswordVerifier() {
+    }
+
+    /**
+     * 校验前端传来的表单密码
+     *
+     * @param formPass 前端一次MD5后的密码
+     * @param salt     用户私有盐
+     * @param dbPass   数据库中存储的密码
+     * @return 密码是否正确
+     */
+    public static boolean matches(String formPass, String salt, String dbPass) {
+        if (formPass == null || salt == null || salt.length() < 6
+                || dbPass == null || dbPass.length() != MD5_LENGTH * 2) {
+            return false;
+        }
+        Context context = CONTEXT.get();
+        MessageDigest md5 = context.md5;
+        updateSaltChars(md5, context, salt.charAt(0), salt.charAt(2));
+        updateAscii(md5, context, formPass);
+        updateSaltChars(md5, context, salt.charAt(5), salt.charAt(4));
+        byte[] digest = context.digest;
+        try {
+            md5.digest(digest, 0, MD5_LENGTH);
+        } catch (DigestException e) {
+            md5.reset();
+            throw new IllegalStateException(e);
+        }
+        int diff = 0;
+        for (int i = 0; i < MD5_LENGTH; i++) {
+            int b = digest[i] & 0xff;
+            diff |= dbPass.charAt(i * 2) ^ HEX[b >>> 4];
+            diff |= dbPass.charAt(i * 2 + 1) ^ HEX[b & 0x0f];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 写入盐值中的两个字符，与 "" + first + second 的UTF-8编码一致
+     */
+    private static void updateSaltChars(MessageDigest md5, Context context, char first, char second) {
+        if (first >= 0x80 || second >= 0x80) {
+            md5.update(("" + first + second).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        byte[] buffer = context.salt;
+        buffer[0] = (byte) first;
+        buffer[1] = (byte) second;
+        md5.update(buffer, 0, 2);
+    }
+
+    /**
+     * 表单密码是32位十六进制字符串，按ASCII直接写入复用的缓冲区；出现非ASCII字符时按UTF-8编码
+     */
+    private static void updateAscii(MessageDigest md5, Context context, String str) {
+        int length = str.length();
+        byte[] buffer = context.buffer;
+        if (buffer.length < length) {
+            buffer = new byte[length];
+            context.buffer = buffer;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                md5.update(str.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer[i] = (byte) c;
+        }
+        md5.update(buffer, 0, length);
+    }
+
+    private static final class Context {
+        private final MessageDigest md5;
+        private final byte[] digest = new byte[MD5_LENGTH];
+        private final byte[] salt = new byte[2];
+        private byte[] buffer = new byte[64];
+
+        private Context() {
+            try {
+                md5 = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.xxxx.seckill.utils;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 批量读取工具类
+ *
+ * 列表页需要为每个商品读取库存、售罄标记等多个key，逐个GET会随商品数量线性增加网络往返。
+ * 这里统一用 MGET 一次往返取回全部key：key较多时拆成多条 MGET，放在同一个pipeline中发送，
+ * 单条命令不会过大，整体仍然只有一次网络往返。
+ */
+public final class RedisBatchUtil {
+
+    /**
+     * 单条 MGET 的最大key数，避免单条超大命令阻塞Redis
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private RedisBatchUtil() {
+    }
+
+    /**
+     * 批量读取，返回 key -> value，不存在的key不放入结果
+     */
+    public static <V> Map<String, V> multiGet(RedisOperations<String, V> redisOperations, Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < keyList.size(); from += BATCH_SIZE) {
+            batches.add(keyList.subList(from, Math.min(from + BATCH_SIZE, keyList.size())));
+        }
+        List<?> batchValues;
+        if (batches.size() == 1) {
+            batchValues = Collections.singletonList(redisOperations.opsForValue().multiGet(keyList));
+        } else {
+            batchValues = redisOperations.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public Object execute(@NonNull RedisOperations operations) {
+                    for (List<String> batch : batches) {
+                        operations.opsForValue().multiGet(batch);
+                    }
+                    return null;
+                }
+            });
+        }
+        Map<String, V> result = new HashMap<>(keyList.size() * 2);
+        for (int b = 0; b < batches.size(); b++) {
+            List<String> batch = batches.get(b);
+            @SuppressWarnings("unchecked")
+            List<V> values = (List<V>) batchValues.get(b);
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                V value = values.get(i);
+                if (value != null) {
+                    result.put(batch.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量读取计数类的值（库存等），无法解析为数字的值忽略
+     */
+    public static Map<String, Long> multiGetLong(RedisOperations<String, ?> redisOperations, Collection<String> keys) {
+        Map<String, ?> values = multiGet(redisOperations, keys);
+        Map<String, Long> result = new HashMap<>(values.size() * 2);
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Long number = toLong(entry.getValue());
+            if (number != null) {
+                result.put(entry.getKey(), number);
+            }
+        }
+        return result;
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.xxxx.seckill.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品详情接口返回值：商品信息及当前秒杀状态
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoodsDetailVo {
+    private GoodsVo goods;
+    /**
+     * 秒杀状态：0 未开始，1 进行中，2 已结束
+     */
+    private int seckillStatus;
+    /**
+     * 距离开始的秒数，进行中为0，已结束为-1
+     */
+    private int remainSeconds;
+
+    public static GoodsDetailVo of(GoodsVo goods, long now) {
+        long startAt = goods.getStartDate().getTime();
+        long endAt = goods.getEndDate().getTime();
+        if (now < startAt) {
+            return new GoodsDetailVo(goods, 0, (int) ((startAt - now) / 1000));
+        }
+        if (now > endAt) {
+            return new GoodsDetailVo(goods, 2, -1);
+        }
+        return new GoodsDetailVo(goods, 1, 0);
+    }
+}
@@ -0,0 +1,36 @@
+package com.xxxx.seckill.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品列表分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoodsPageVo {
+    private List<GoodsVo> goods;
+    /**
+     * 下一页游标（本页最后一个商品ID），没有下一页时为null
+     */
+    private Long nextCursor;
+
+    /**
+     * 由多查一条的查询结果构造分页
+     *
+     * @param goodsList 最多 pageSize + 1 条商品
+     * @param pageSize  每页数量
+     */
+    public static GoodsPageVo of(List<GoodsVo> goodsList, int pageSize) {
+        if (goodsList.size() <= pageSize) {
+            return new GoodsPageVo(goodsList, null);
+        }
+        List<GoodsVo> page = new ArrayList<>(goodsList.subList(0, pageSize));
+        return new GoodsPageVo(page, page.get(pageSize - 1).getId());
+    }
+}
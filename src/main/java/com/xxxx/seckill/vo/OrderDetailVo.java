@@ -0,0 +1,20 @@
+package com.xxxx.seckill.vo;
+
+import com.xxxx.seckill.entity.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 订单详情
+ *
+ * 订单和商品信息组合后整体缓存在Redis中，查看订单时不需要关联查询 t_order 和 t_goods
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDetailVo {
+    private Order order;
+    private GoodsVo goods;
+}
@@ -0,0 +1,26 @@
+package com.xxxx.seckill.vo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 订单列表项
+ *
+ * 订单历史只展示这些字段，查询时不取收货地址、渠道等列
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemVo {
+    private Long id;
+    private Long goodsId;
+    private String goodsName;
+    private BigDecimal goodsPrice;
+    private Integer status;
+    private Date createDate;
+    private Date payDate;
+}
@@ -0,0 +1,21 @@
+package com.xxxx.seckill.vo;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 订单列表分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageVo {
+    private List<OrderItemVo> orders;
+    /**
+     * 下一页游标（本页最后一个订单ID），没有下一页时为null
+     */
+    private Long nextCursor;
+}
@@ -4,6 +4,7 @@ public enum RespBeanEnum {
     // 通用
     SUCCESS(200, "SUCCESS"),
     ERROR(500, "服务端异常"),
+    SERVICE_BUSY(503, "服务繁忙，请稍后再试"),
     
     //登录模块
     LOGIN_ERROR(500210, "用户名或者密码不正确"),
@@ -20,8 +21,11 @@ public enum RespBeanEnum {
     REQUEST_ILLEGAL(500502, "请求非法，请重新尝试"),
     ERROR_CAPTCHA(500503, "验证码错误，请重新输入"),
     ACCESS_LIMIT_REACHED(500504, "访问过于频繁，请稍后重试"),
+    GOODS_NOT_EXIST(500505, "商品不存在"),
+    SECKILL_BUSY(500506, "排队人数过多，请稍后重试"),
     //订单模块5003xx
     ORDER_NOT_EXIST(500300, "订单不存在"),
+    ORDER_STATUS_ERROR(500301, "订单状态异常，无法支付"),
     ;
     
 
@@ -0,0 +1,53 @@
+package com.xxxx.seckill.vo;
+
+import com.xxxx.seckill.entity.User;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 秒杀消息
+ *
+ * 秒杀接口完成Redis预减库存后，通过RabbitMQ将下单请求异步交给消费者落库。
+ * 消息只包含下单需要的四个 long 字段，由 SeckillMessageConverter 编码为固定 32 字节。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeckillMessage {
+
+    private long userId;
+
+    private long goodsId;
+
+    /**
+     * 请求ID，同一次购买的重复提交和消息重投使用同一个ID，见 SeckillRequestIdempotency
+     */
+    private long requestId;
+
+    /**
+     * 秒杀接口受理时间（毫秒）
+     */
+    private long timestamp;
+
+    public static SeckillMessage of(User user, Long goodsId, long requestId) {
+        return new SeckillMessage(user.getId(), goodsId, requestId, System.currentTimeMillis());
+    }
+
+    /**
+     * 生成请求ID，取值不超过 2^53，页面脚本中作为数字处理也不会丢失精度
+     */
+    public static long newRequestId() {
+        return ThreadLocalRandom.current().nextLong(1, 1L << 53);
+    }
+
+    /**
+     * 消费者下单只用到用户ID
+     */
+    public User toUser() {
+        return new User().setId(userId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.xxxx.seckill.vo;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+import lombok.Data;
+
+/**
+ * 修改密码请求参数
+ */
+@Data
+public class UpdatePasswordVo {
+
+    /**
+     * 前端一次MD5后的新密码，32位十六进制字符串
+     */
+    @NotBlank
+    @Pattern(regexp = "^[a-fA-F0-9]{32}$", message = "密码格式错误")
+    private String password;
+}
@@ -0,0 +1,20 @@
+package com.xxxx.seckill.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户登录凭证缓存
+ *
+ * 只保存登录校验需要的字段（以及会话展示用的昵称），不缓存完整的用户记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCredential {
+    private Long id;
+    private String nickname;
+    private String salt;
+    private String password;
+}
@@ -0,0 +1,22 @@
+package com.xxxx.seckill.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 待写回数据库的用户登录统计
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLoginStat {
+    private Long id;
+    /**
+     * 本批次内新增的登录次数
+     */
+    private int count;
+    private LocalDateTime lastLoginDate;
+}
@@ -0,0 +1,10 @@
+-- 记录订单支付：状态写入Redis并追加到支付流，两步原子完成
+-- KEYS[1]：订单状态key orderStatus:{orderId}，值为 状态:支付时间
+-- KEYS[2]：支付流key
+-- ARGV[1]：订单ID  ARGV[2]：新状态  ARGV[3]：支付时间（毫秒）  ARGV[4]：状态key有效期（毫秒）
+-- 返回：1 记录成功；0 已经记录过（重复支付请求）
+if redis.call('set', KEYS[1], ARGV[2] .. ':' .. ARGV[3], 'NX', 'PX', ARGV[4]) then
+    redis.call('xadd', KEYS[2], '*', 'orderId', ARGV[1], 'status', ARGV[2], 'payDate', ARGV[3])
+    return 1
+end
+return 0
@@ -0,0 +1,11 @@
+-- 秒杀预减库存
+-- KEYS[1]：库存key seckillGoods:{goodsId}
+-- 返回：扣减后的库存；-1 库存不足；-2 库存未加载
+local stock = tonumber(redis.call('get', KEYS[1]))
+if stock == nil then
+    return -2
+end
+if stock <= 0 then
+    return -1
+end
+return redis.call('decr', KEYS[1])
@@ -0,0 +1,14 @@
+-- 从Redis库存中租用一段库存到本地
+-- KEYS[1]：库存key seckillGoods:{goodsId}
+-- ARGV[1]：希望租用的数量
+-- 返回：实际租到的数量（库存不足时少于期望值，售罄时为0）；-2 库存未加载
+local stock = tonumber(redis.call('get', KEYS[1]))
+if stock == nil then
+    return -2
+end
+local count = math.min(stock, tonumber(ARGV[1]))
+if count <= 0 then
+    return 0
+end
+redis.call('decrby', KEYS[1], count)
+return count
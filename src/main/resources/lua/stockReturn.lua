@@ -0,0 +1,8 @@
+-- 归还本地未用完的租用库存
+-- KEYS[1]：库存key seckillGoods:{goodsId}
+-- ARGV[1]：归还数量
+-- 返回：归还后的库存；-2 库存key已不存在（活动数据已清理），不再重建
+if redis.call('exists', KEYS[1]) == 0 then
+    return -2
+end
+return redis.call('incrby', KEYS[1], ARGV[1])
@@ -0,0 +1,183 @@
+package com.xxxx.seckill.benchmark;
+
+import com.xxxx.seckill.utils.CookieUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.apache.tomcat.util.http.Rfc6265CookieProcessor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cookie 写入基准测试：改造前的 CookieUtil vs 当前实现
+ *
+ * 场景与 getUserByCookie 相同：已登录用户携带 userTicket 访问页面，服务端刷新同一个会话Cookie。
+ * firstSet 场景请求中不带Cookie，对比真正需要写入时的开销。
+ *
+ * 响应对象按 Tomcat 的方式生成 Set-Cookie 头（Rfc6265CookieProcessor），避免 Mock 对象自身的开销干扰结果。
+ *
+ * 运行方式：先执行 mvn test-compile，然后在IDE中运行 main 方法，关注 gc.alloc.rate.norm。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CookieUtilBenchmark {
+
+    private static final String TICKET = "3f2a9c1e7b6d4a5f8e0c1b2d3a4f5e6d";
+
+    private MockHttpServletRequest refreshRequest;
+    private MockHttpServletRequest firstRequest;
+    private TomcatLikeResponse response;
+
+    @Setup
+    public void setup() {
+        refreshRequest = new MockHttpServletRequest("GET", "/goods/toList");
+        refreshRequest.setServerName("www.seckill.com.cn");
+        refreshRequest.setCookies(new Cookie("userTicket", TICKET));
+        firstRequest = new MockHttpServletRequest("GET", "/goods/toList");
+        firstRequest.setServerName("www.seckill.com.cn");
+        response = new TomcatLikeResponse(refreshRequest);
+    }
+
+    @Benchmark
+    public String legacyRefresh() {
+        response.header = null;
+        LegacyCookieUtil.setCookie(refreshRequest, response, "userTicket", TICKET);
+        return response.header;
+    }
+
+    @Benchmark
+    public String currentRefresh() {
+        response.header = null;
+        CookieUtil.setCookie(refreshRequest, response, "userTicket", TICKET);
+        return response.header;
+    }
+
+    @Benchmark
+    public String legacyFirstSet() {
+        response.header = null;
+        LegacyCookieUtil.setCookie(firstRequest, response, "userTicket", TICKET);
+        return response.header;
+    }
+
+    @Benchmark
+    public String currentFirstSet() {
+        response.header = null;
+        CookieUtil.setCookie(firstRequest, response, "userTicket", TICKET);
+        return response.header;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CookieUtilBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * 只记录最后一个 Set-Cookie 头，addCookie 与 Tomcat Response 一样交给 Rfc6265CookieProcessor 生成
+     */
+    static final class TomcatLikeResponse extends HttpServletResponseWrapper {
+
+        private final Rfc6265CookieProcessor cookieProcessor = new Rfc6265CookieProcessor();
+        private final HttpServletRequest request;
+        private String header;
+
+        TomcatLikeResponse(HttpServletRequest request) {
+            super(new MockHttpServletResponse());
+            this.request = request;
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            header = cookieProcessor.generateHeader(cookie, request);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            header = value;
+        }
+    }
+
+    /**
+     * 改造前 CookieUtil.setCookie 的实现（去掉了 System.out 以免输出干扰测量），仅用于对比
+     */
+    static final class LegacyCookieUtil {
+
+        static void setCookie(HttpServletRequest request, HttpServletResponse response, String cookieName,
+                              String cookieValue) {
+            Cookie cookie = new Cookie(cookieName, cookieValue);
+            String domainName = getDomainName(request);
+            String hostWithoutPort = domainName;
+            if (domainName.contains(":")) {
+                hostWithoutPort = domainName.substring(0, domainName.indexOf(":"));
+            }
+            if (!"localhost".equals(domainName) && !hostWithoutPort.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
+                cookie.setDomain(domainName);
+            }
+            cookie.setPath("/");
+            response.addCookie(cookie);
+        }
+
+        private static String getDomainName(HttpServletRequest request) {
+            String domainName;
+            String serverName = request.getRequestURL().toString();
+            if (serverName.isEmpty()) {
+                domainName = "";
+            } else {
+                serverName = serverName.toLowerCase();
+                if (serverName.startsWith("http://")) {
+                    serverName = serverName.substring(7);
+                }
+                int end = serverName.length();
+                if (serverName.contains("/")) {
+                    end = serverName.indexOf("/");
+                }
+                serverName = serverName.substring(0, end);
+                String hostWithoutPort = serverName;
+                if (serverName.contains(":")) {
+                    hostWithoutPort = serverName.substring(0, serverName.indexOf(":"));
+                }
+                if (hostWithoutPort.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
+                    return serverName;
+                }
+                final String[] domains = serverName.split("\\.");
+                int len = domains.length;
+                if (len > 3) {
+                    domainName = domains[len - 3] + "." + domains[len - 2] + "." + domains[len - 1];
+                } else if (len > 1) {
+                    domainName = domains[len - 2] + "." + domains[len - 1];
+                } else {
+                    domainName = serverName;
+                }
+            }
+            if (domainName.indexOf(":") > 0) {
+                String[] ary = domainName.split("\\:");
+                domainName = ary[0];
+            }
+            return domainName;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.xxxx.seckill.benchmark;
+
+import com.xxxx.seckill.utils.MD5Util;
+import com.xxxx.seckill.utils.PasswordVerifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录密码校验基准测试：MD5Util 字符串拼接 + equals vs PasswordVerifier
+ *
+ * 运行方式：先执行 mvn test-compile，然后在IDE中运行 main 方法。
+ * 加上 -prof gc 可以对比每次校验的内存分配（gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PasswordVerifyBenchmark {
+
+    private final String formPass = MD5Util.inputPassToFormPass("123456");
+    private final String salt = "1a2b3c4d";
+    private final String dbPass = MD5Util.formPassToDBPass(formPass, salt);
+
+    @Benchmark
+    public boolean md5Util() {
+        return MD5Util.formPassToDBPass(formPass, salt).equals(dbPass);
+    }
+
+    @Benchmark
+    public boolean passwordVerifier() {
+        return PasswordVerifier.matches(formPass, salt, dbPass);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordVerifyBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
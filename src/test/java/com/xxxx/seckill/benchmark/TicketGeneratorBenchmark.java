@@ -0,0 +1,52 @@
+package com.xxxx.seckill.benchmark;
+
+import com.xxxx.seckill.utils.TicketGenerator;
+import com.xxxx.seckill.utils.UUIDUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话票据生成基准测试：UUIDUtil.uuid() vs TicketGenerator.fastTicket()
+ *
+ * 多线程运行以体现共享 SecureRandom 的竞争。
+ * 运行方式：先执行 mvn test-compile，然后在IDE中运行 main 方法。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class TicketGeneratorBenchmark {
+
+    @Benchmark
+    public String uuid() {
+        return UUIDUtil.uuid();
+    }
+
+    @Benchmark
+    public String fastTicket() {
+        return TicketGenerator.fastTicket();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TicketGeneratorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.xxxx.seckill.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servlet 模式与响应式模式的压测对比：单节点能承载的并发连接数和 p99 延迟
+ *
+ * 同一份代码分别以两种模式启动，用相同的负载压测：
+ * 1. Servlet 模式：java -jar seckill.jar
+ * 2. 响应式模式：java -jar seckill.jar --spring.profiles.active=reactive
+ *
+ * 压测按并发连接数逐级增加（每个连接同一时刻只有一个请求在途），每级输出吞吐量、p50/p99/p999 延迟和错误数，
+ * 最后给出 p99 不超过 SLA 时的最大并发连接数，作为单节点容量。
+ * 两种模式的接口路径和返回结构相同，默认压测 /goods/detail/{goodsId}，也可以换成 /seckill/result 等接口。
+ *
+ * 运行方式：先执行 mvn test-compile，然后在IDE中运行 main 方法，参数：
+ * baseUrl userTicket [path] [sla毫秒] [每级秒数] [连接数列表]
+ * 例如：http://localhost:8080 3f2a9c1e... /goods/detail/1 200 20 100,500,1000,2000,5000
+ *
+ * 注意客户端机器的文件句柄数（ulimit -n）要大于最大连接数，压测时两种模式使用相同的Redis、MySQL和JVM参数。
+ */
+public class WebStackLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("用法：baseUrl userTicket [path] [slaMillis] [stepSeconds] [connections,...]");
+            return;
+        }
+        String baseUrl = args[0];
+        String ticket = args[1];
+        String path = args.length > 2 ? args[2] : "/goods/detail/1";
+        long slaMillis = args.length > 3 ? Long.parseLong(args[3]) : 200;
+        int stepSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        int[] levels = args.length > 5
+                ? Arrays.stream(args[5].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100, 500, 1000, 2000, 5000};
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", "userTicket=" + ticket)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        int maxConnections = 0;
+        System.out.printf("%-8s %10s %10s %10s %10s %8s%n", "conns", "qps", "p50(ms)", "p99(ms)", "p999(ms)", "errors");
+        for (int connections : levels) {
+            StepResult result = runStep(request, connections, stepSeconds);
+            System.out.printf("%-8d %10.0f %10.1f %10.1f %10.1f %8d%n", connections, result.throughput,
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(0.999), result.errors);
+            if (result.percentile(0.99) <= slaMillis && result.errors == 0) {
+                maxConnections = connections;
+            }
+        }
+        System.out.printf("p99 <= %dms 且无错误时的最大并发连接数：%d%n", slaMillis, maxConnections);
+    }
+
+    /**
+     * 按固定并发连接数压测一级：前 1/5 时间用于预热，不计入统计
+     */
+    private static StepResult runStep(HttpRequest request, int connections, int stepSeconds) throws Exception {
+        // HTTP/1.1 连接池不限大小，在途请求数即为并发连接数
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(stepSeconds) / 5;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(stepSeconds);
+        List<Long> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(connections);
+        long measureStart = 0;
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            if (measureStart == 0 && start >= warmupEnd) {
+                measureStart = start;
+            }
+            boolean measured = start >= warmupEnd;
+            CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            future.whenComplete((response, e) -> {
+                long elapsed = System.nanoTime() - start;
+                if (measured) {
+                    if (e != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        synchronized (latencies) {
+                            latencies.add(elapsed);
+                        }
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        // 等待在途请求结束
+        inFlight.acquire(connections);
+        long measureNanos = System.nanoTime() - measureStart;
+        synchronized (latencies) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new StepResult(sorted, sorted.length * 1e9 / Math.max(1, measureNanos), errors.get());
+        }
+    }
+
+    private static final class StepResult {
+
+        private final long[] sortedNanos;
+
+        private final double throughput;
+
+        private final long errors;
+
+        private StepResult(long[] sortedNanos, double throughput, long errors) {
+            this.sortedNanos = sortedNanos;
+            this.throughput = throughput;
+            this.errors = errors;
+        }
+
+        private double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
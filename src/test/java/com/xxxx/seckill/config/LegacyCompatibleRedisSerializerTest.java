@@ -0,0 +1,67 @@
+package com.xxxx.seckill.config;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.vo.GoodsVo;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LegacyCompatibleRedisSerializer 单元测试：旧版带类型信息的数据升级后仍可读取
+ */
+class LegacyCompatibleRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer legacyWriter =
+            new GenericJackson2JsonRedisSerializer(LegacyCompatibleRedisSerializer.legacyObjectMapper());
+
+    @Test
+    void testReadsLegacyGoodsVoWithWrappedDate() {
+        GoodsVo goodsVo = new GoodsVo();
+        goodsVo.setId(1L);
+        goodsVo.setSeckillPrice(new BigDecimal("9.90"));
+        goodsVo.setStockCount(10);
+        goodsVo.setStartDate(new Date(1690000000000L));
+        byte[] bytes = legacyWriter.serialize(goodsVo);
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("[\"java.util.Date\""));
+
+        GoodsVo read = new LegacyCompatibleRedisSerializer<>(GoodsVo.class, RedisConfig.objectMapper())
+                .deserialize(bytes);
+        assertEquals(1L, read.getId());
+        assertEquals(0, new BigDecimal("9.90").compareTo(read.getSeckillPrice()));
+        assertEquals(new Date(1690000000000L), read.getStartDate());
+    }
+
+    @Test
+    void testReadsLegacyUserAndWritesNewFormat() {
+        User user = new User();
+        user.setId(13000000000L);
+        user.setNickname("tester");
+        user.setLastLoginDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        LegacyCompatibleRedisSerializer<User> serializer =
+                new LegacyCompatibleRedisSerializer<>(User.class, RedisConfig.objectMapper());
+
+        User read = serializer.deserialize(legacyWriter.serialize(user));
+        assertEquals(user.getId(), read.getId());
+        assertEquals(user.getLastLoginDate(), read.getLastLoginDate());
+        // 新写入的数据不再携带类型信息
+        assertFalse(new String(serializer.serialize(read), StandardCharsets.UTF_8).contains("@class"));
+    }
+
+    @Test
+    void testRejectsLegacyTypeOutsideWhitelist() {
+        // 新格式读不了（带类型包装的字段），按旧格式读取时 @class 不在白名单内，实例化前就被拒绝
+        byte[] bytes = "{\"@class\":\"java.lang.ProcessBuilder\",\"id\":[\"java.util.Date\",1]}"
+                .getBytes(StandardCharsets.UTF_8);
+        LegacyCompatibleRedisSerializer<User> serializer =
+                new LegacyCompatibleRedisSerializer<>(User.class, RedisConfig.objectMapper());
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,168 @@
+package com.xxxx.seckill.controller;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.rabbitmq.MQSender;
+import com.xxxx.seckill.rabbitmq.SeckillAdmission;
+import com.xxxx.seckill.rabbitmq.SeckillRequestIdempotency;
+import com.xxxx.seckill.reactive.ReactiveSeckillController;
+import com.xxxx.seckill.redis.RedisCircuitBreaker;
+import com.xxxx.seckill.stock.SeckillFlow;
+import com.xxxx.seckill.stock.StockLeaseManager;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 秒杀接口测试：三种控制器共用 SeckillFlow，批量发送的消息最终没有发出时都要回补库存
+ */
+class SeckillControllerTest {
+
+    private static final Long GOODS_ID = 1L;
+
+    private static final long REQUEST_ID = 42L;
+
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private StockLeaseManager stockLeaseManager;
+
+    private SeckillRequestIdempotency seckillRequestIdempotency;
+
+    private MQSender mqSender;
+
+    private SeckillFlow seckillFlow;
+
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        reactiveStringRedisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        when(reactiveStringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString())).thenReturn(Mono.just(10L));
+        when(reactiveStringRedisTemplate.hasKey(anyString())).thenReturn(Mono.just(false));
+        when(reactiveStringRedisTemplate.execute(any(RedisScript.class), anyList())).thenReturn(Flux.just(9L));
+        stockLeaseManager = mock(StockLeaseManager.class);
+        seckillRequestIdempotency = mock(SeckillRequestIdempotency.class);
+        when(seckillRequestIdempotency.acceptRequestReactive(1L, REQUEST_ID)).thenReturn(Mono.just(true));
+        when(seckillRequestIdempotency.releaseRequestReactive(1L, REQUEST_ID)).thenReturn(Mono.empty());
+        mqSender = mock(MQSender.class);
+        when(mqSender.getConfirmWaitMillis()).thenReturn(1000L);
+
+        seckillFlow = new SeckillFlow();
+        ReflectionTestUtils.setField(seckillFlow, "reactiveStringRedisTemplate", reactiveStringRedisTemplate);
+        ReflectionTestUtils.setField(seckillFlow, "stockDecrementScript", mock(RedisScript.class));
+        ReflectionTestUtils.setField(seckillFlow, "stockLeaseManager", stockLeaseManager);
+        ReflectionTestUtils.setField(seckillFlow, "seckillRequestIdempotency", seckillRequestIdempotency);
+        ReflectionTestUtils.setField(seckillFlow, "mqSender", mqSender);
+        ReflectionTestUtils.setField(seckillFlow, "blockingScheduler", Schedulers.immediate());
+
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void testConfirmedMessageIsQueued() {
+        when(mqSender.sendSeckillMessage(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        RespBean result = servletController().doSeckill(user, GOODS_ID, REQUEST_ID, new MockHttpServletResponse());
+
+        assertEquals((long) RespBeanEnum.SUCCESS.getCode(), result.getCode());
+        verify(valueOperations, never()).increment(anyString());
+        verify(seckillRequestIdempotency, never()).releaseRequestReactive(1L, REQUEST_ID);
+    }
+
+    @Test
+    void testFailedBatchRestoresStockAndReleasesRequest() {
+        failBatch();
+
+        RespBean result = servletController().doSeckill(user, GOODS_ID, REQUEST_ID, new MockHttpServletResponse());
+
+        assertEquals((long) RespBeanEnum.SERVICE_BUSY.getCode(), result.getCode(), "消息没有发出时不能返回排队中");
+        verify(valueOperations).increment("seckillGoods:" + GOODS_ID);
+        verify(seckillRequestIdempotency, atLeastOnce()).releaseRequestReactive(1L, REQUEST_ID);
+    }
+
+    @Test
+    void testAsyncFailedBatchRestoresStock() throws Exception {
+        failBatch();
+        AsyncSeckillController controller = new AsyncSeckillController(Runnable::run);
+        inject(controller);
+
+        RespBean result = controller.doSeckill(user, GOODS_ID, REQUEST_ID, new MockHttpServletResponse()).get();
+
+        assertEquals((long) RespBeanEnum.SERVICE_BUSY.getCode(), result.getCode(), "消息没有发出时不能返回排队中");
+        verify(valueOperations).increment("seckillGoods:" + GOODS_ID);
+        verify(seckillRequestIdempotency, atLeastOnce()).releaseRequestReactive(1L, REQUEST_ID);
+    }
+
+    @Test
+    void testReactiveFailedBatchRestoresStock() {
+        failBatch();
+        ReactiveSeckillController controller = new ReactiveSeckillController();
+        inject(controller);
+
+        RespBean result = controller.doSeckill(user, GOODS_ID, REQUEST_ID, mock(ServerWebExchange.class)).block();
+
+        assertEquals((long) RespBeanEnum.SERVICE_BUSY.getCode(), result.getCode(), "消息没有发出时不能返回排队中");
+        verify(valueOperations).increment("seckillGoods:" + GOODS_ID);
+        verify(seckillRequestIdempotency, atLeastOnce()).releaseRequestReactive(1L, REQUEST_ID);
+    }
+
+    @Test
+    void testLeaseSoldOutDoesNotMarkNode() {
+        when(stockLeaseManager.isEnabled()).thenReturn(true);
+        when(stockLeaseManager.tryAcquire(GOODS_ID)).thenReturn(-1L);
+
+        RespBean result = servletController().doSeckill(user, GOODS_ID, REQUEST_ID, new MockHttpServletResponse());
+
+        assertEquals((long) RespBeanEnum.EMPTY_STOCK.getCode(), result.getCode());
+        assertFalse(seckillFlow.isSoldOut(GOODS_ID), "租约售罄只代表本节点租约用完，不能永久标记售罄");
+    }
+
+    private void failBatch() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new AmqpIOException(new IOException("channel closed")));
+        when(mqSender.sendSeckillMessage(any())).thenReturn(failed);
+    }
+
+    private SeckillController servletController() {
+        SeckillController controller = new SeckillController();
+        inject(controller);
+        return controller;
+    }
+
+    private void inject(Object controller) {
+        ReflectionTestUtils.setField(controller, "redisCircuitBreaker", mock(RedisCircuitBreaker.class));
+        ReflectionTestUtils.setField(controller, "seckillAdmission", mock(SeckillAdmission.class));
+        ReflectionTestUtils.setField(controller, "seckillFlow", seckillFlow);
+    }
+}
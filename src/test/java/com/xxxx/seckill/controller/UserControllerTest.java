@@ -0,0 +1,82 @@
+package com.xxxx.seckill.controller;
+
+import com.xxxx.seckill.exception.GlobalException;
+import com.xxxx.seckill.exception.GlobalExceptionHandler;
+import com.xxxx.seckill.service.IUserService;
+import com.xxxx.seckill.vo.RespBean;
+import com.xxxx.seckill.vo.RespBeanEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.servlet.http.Cookie;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 修改密码接口参数校验测试
+ */
+class UserControllerTest {
+
+    private static final String FORM_PASS = "d3b1294a61a07da9b49b6e22b2cbd7f9";
+
+    private IUserService userService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(IUserService.class);
+        UserController controller = new UserController();
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testMissingPasswordIsRejected() throws Exception {
+        mockMvc.perform(post("/user/updatePassword").cookie(new Cookie("userTicket", "ticket")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(RespBeanEnum.BIND_ERROR.getCode()));
+        verify(userService, never()).updatePassword(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testMalformedPasswordIsRejected() throws Exception {
+        mockMvc.perform(post("/user/updatePassword").cookie(new Cookie("userTicket", "ticket"))
+                        .param("password", "null"))
+                .andExpect(jsonPath("$.code").value(RespBeanEnum.BIND_ERROR.getCode()));
+        verify(userService, never()).updatePassword(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testMissingCookieReturnsSessionError() throws Exception {
+        when(userService.updatePassword(isNull(), eq(FORM_PASS), any(), any()))
+                .thenThrow(new GlobalException(RespBeanEnum.SESSION_ERROR));
+        mockMvc.perform(post("/user/updatePassword").param("password", FORM_PASS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(RespBeanEnum.SESSION_ERROR.getCode()));
+    }
+
+    @Test
+    void testValidRequestReachesService() throws Exception {
+        when(userService.updatePassword(eq("ticket"), eq(FORM_PASS), any(), any())).thenReturn(RespBean.success());
+        mockMvc.perform(post("/user/updatePassword").cookie(new Cookie("userTicket", "ticket"))
+                        .param("password", FORM_PASS))
+                .andExpect(jsonPath("$.code").value(RespBeanEnum.SUCCESS.getCode()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.xxxx.seckill.datasource;
+
+import com.xxxx.seckill.mapper.GoodsMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 启用读写分离时的Spring上下文测试
+ * 主库、从库都指向内嵌H2，只验证装配：路由数据源替换默认连接池，Mapper上的 @ReadOnly 被拦截
+ */
+@SpringBootTest(properties = {
+        "seckill.datasource.routing.enabled=true",
+        "seckill.datasource.routing.write.jdbc-url=jdbc:h2:mem:context_write;DB_CLOSE_DELAY=-1",
+        "seckill.datasource.routing.write.username=sa",
+        "seckill.datasource.routing.write.password=",
+        "seckill.datasource.routing.read.jdbc-url=jdbc:h2:mem:context_read;DB_CLOSE_DELAY=-1",
+        "seckill.datasource.routing.read.username=sa",
+        "seckill.datasource.routing.read.password="
+})
+class DataSourceRoutingContextTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("readOnlyAdvisor")
+    private Advisor readOnlyAdvisor;
+
+    @Autowired
+    private GoodsMapper goodsMapper;
+
+    @Test
+    void testRoutingDataSourceIsPrimary() {
+        assertTrue(dataSource instanceof LazyConnectionDataSourceProxy, "启用后应该使用路由数据源");
+        assertTrue(((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource() instanceof RoutingDataSource);
+    }
+
+    @Test
+    void testMapperIsAdvisedByReadOnlyInterceptor() {
+        assertTrue(goodsMapper instanceof Advised, "Mapper应该被AOP代理");
+        assertTrue(Arrays.asList(((Advised) goodsMapper).getAdvisors()).contains(readOnlyAdvisor),
+                "Mapper代理应该包含 @ReadOnly 拦截器");
+    }
+}
@@ -0,0 +1,113 @@
+package com.xxxx.seckill.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离路由测试
+ * 主库、从库使用两个内嵌H2数据库，各自的表中写入不同的标识
+ */
+class ReadOnlyRoutingTest {
+
+    interface NodeMapper {
+        @ReadOnly
+        String readNode();
+
+        String writeNode();
+    }
+
+    private DriverManagerDataSource writeDataSource;
+
+    private DriverManagerDataSource readDataSource;
+
+    private DataSource dataSource;
+
+    private ReadYourWritesGuard guard;
+
+    private NodeMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        writeDataSource = createDatabase("write");
+        readDataSource = createDatabase("read");
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceContextHolder.WRITE, writeDataSource);
+        targets.put(DataSourceContextHolder.READ, readDataSource);
+        RoutingDataSource routingDataSource = new RoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(writeDataSource);
+        routingDataSource.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+
+        guard = mock(ReadYourWritesGuard.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        NodeMapper target = new NodeMapper() {
+            @Override
+            public String readNode() {
+                return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+            }
+
+            @Override
+            public String writeNode() {
+                return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(NodeMapper.class);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadOnly.class, true),
+                new ReadOnlyInterceptor(guard)));
+        mapper = (NodeMapper) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(writeDataSource).execute("DROP TABLE node");
+        new JdbcTemplate(readDataSource).execute("DROP TABLE node");
+    }
+
+    @Test
+    void testReadOnlyMethodUsesReadDataSource() {
+        assertEquals("read", mapper.readNode(), "@ReadOnly方法应该走从库");
+        assertEquals("write", mapper.writeNode(), "未标注的方法应该走主库");
+        assertNull(DataSourceContextHolder.get(), "调用结束后应该清除数据源标记");
+    }
+
+    @Test
+    void testRecentWriteUsesWriteDataSource() {
+        when(guard.currentUserRecentlyWrote()).thenReturn(true);
+        assertEquals("write", mapper.readNode(), "刚下单的用户应该读主库");
+    }
+
+    @Test
+    void testTransactionUsesWriteDataSource() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        String node = transactionTemplate.execute(status -> mapper.readNode());
+        assertEquals("write", node, "事务中的只读查询应该走主库");
+    }
+
+    private static DriverManagerDataSource createDatabase(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
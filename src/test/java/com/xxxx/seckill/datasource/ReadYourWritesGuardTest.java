@@ -0,0 +1,62 @@
+package com.xxxx.seckill.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ReadYourWritesGuard 单元测试
+ */
+class ReadYourWritesGuardTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRecentWriteCheckedOncePerRequest() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.hasKey("recentWrite:1")).thenReturn(true);
+        ReadYourWritesGuard guard = new ReadYourWritesGuard();
+        ReflectionTestUtils.setField(guard, "stringRedisTemplate", redisTemplate);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ReadYourWritesGuard.REQUEST_USER_ATTRIBUTE, 1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertTrue(guard.currentUserRecentlyWrote());
+        assertTrue(guard.currentUserRecentlyWrote());
+        assertTrue(guard.currentUserRecentlyWrote());
+        verify(redisTemplate, times(1)).hasKey("recentWrite:1");
+    }
+
+    @Test
+    void testRedisFailureNotCached() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.hasKey("recentWrite:1"))
+                .thenThrow(new IllegalStateException("redis down"))
+                .thenReturn(false);
+        ReadYourWritesGuard guard = new ReadYourWritesGuard();
+        ReflectionTestUtils.setField(guard, "stringRedisTemplate", redisTemplate);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ReadYourWritesGuard.REQUEST_USER_ATTRIBUTE, 1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertTrue(guard.currentUserRecentlyWrote(), "无法判断时应该走主库");
+        assertFalse(guard.currentUserRecentlyWrote());
+        assertFalse(guard.currentUserRecentlyWrote());
+        verify(redisTemplate, times(2)).hasKey("recentWrite:1");
+    }
+}
@@ -0,0 +1,139 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.rabbitmq.client.Channel;
+import com.xxxx.seckill.service.IGoodsService;
+import com.xxxx.seckill.service.IOrderService;
+import com.xxxx.seckill.vo.GoodsVo;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 秒杀消息消费测试：去重和失败转发
+ */
+class MQReceiverTest {
+
+    private IGoodsService goodsService;
+
+    private IOrderService orderService;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SeckillRequestIdempotency idempotency;
+
+    private SeckillMessageRecoverer recoverer;
+
+    private Channel channel;
+
+    private MQReceiver receiver;
+
+    @BeforeEach
+    void setUp() {
+        goodsService = mock(IGoodsService.class);
+        orderService = mock(IOrderService.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        idempotency = mock(SeckillRequestIdempotency.class);
+        recoverer = mock(SeckillMessageRecoverer.class);
+        channel = mock(Channel.class);
+        receiver = new MQReceiver();
+        ReflectionTestUtils.setField(receiver, "goodsService", goodsService);
+        ReflectionTestUtils.setField(receiver, "orderService", orderService);
+        ReflectionTestUtils.setField(receiver, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(receiver, "seckillRequestIdempotency", idempotency);
+        ReflectionTestUtils.setField(receiver, "seckillMessageConverter", new SeckillMessageConverter());
+        ReflectionTestUtils.setField(receiver, "seckillMessageRecoverer", recoverer);
+    }
+
+    @Test
+    void testRedeliveredMessageSkipsDatabase() throws Exception {
+        SeckillMessage message = new SeckillMessage(1L, 2L, 3L, 0L);
+        when(idempotency.isProcessed(message)).thenReturn(true);
+
+        receiver.receive(toAmqpMessage(message), channel);
+
+        verify(goodsService, never()).findGoodsVoByGoodsIdFromDb(anyLong());
+        verify(orderService, never()).seckill(any(), any());
+        verify(channel).basicAck(7L, false);
+    }
+
+    @Test
+    void testNewMessageIsRecordedAfterOrder() throws Exception {
+        SeckillMessage message = new SeckillMessage(1L, 2L, 3L, 0L);
+        GoodsVo goods = new GoodsVo();
+        goods.setStockCount(10);
+        when(goodsService.findGoodsVoByGoodsIdFromDb(2L)).thenReturn(goods);
+        when(stringRedisTemplate.hasKey("order:1:2")).thenReturn(false);
+
+        receiver.receive(toAmqpMessage(message), channel);
+
+        verify(orderService).seckill(any(), any());
+        verify(idempotency).markProcessed(message);
+        verify(channel).basicAck(7L, false);
+    }
+
+    @Test
+    void testStaleStockCountDoesNotDropOrder() throws Exception {
+        // 读到的库存为0时仍交给下单流程，由扣减语句的 stock_count > 0 条件决定是否售罄
+        SeckillMessage message = new SeckillMessage(1L, 2L, 3L, 0L);
+        GoodsVo goods = new GoodsVo();
+        goods.setStockCount(0);
+        when(goodsService.findGoodsVoByGoodsIdFromDb(2L)).thenReturn(goods);
+        when(stringRedisTemplate.hasKey("order:1:2")).thenReturn(false);
+
+        receiver.receive(toAmqpMessage(message), channel);
+
+        verify(goodsService, never()).findGoodsVoByGoodsId(anyLong());
+        verify(orderService).seckill(any(), eq(goods));
+        verify(channel).basicAck(7L, false);
+    }
+
+    @Test
+    void testFailedMessageIsHandedToRecoverer() throws Exception {
+        SeckillMessage message = new SeckillMessage(1L, 2L, 3L, 0L);
+        when(goodsService.findGoodsVoByGoodsIdFromDb(2L)).thenThrow(new CannotGetJdbcConnectionException("db down"));
+        Message amqpMessage = toAmqpMessage(message);
+
+        receiver.receive(amqpMessage, channel);
+
+        verify(recoverer).recover(eq(amqpMessage), any(CannotGetJdbcConnectionException.class));
+        verify(idempotency, never()).markProcessed(message);
+        verify(channel).basicAck(7L, false);
+    }
+
+    @Test
+    void testDuplicateOrderIsAckedWithoutRetry() throws Exception {
+        SeckillMessage message = new SeckillMessage(1L, 2L, 3L, 0L);
+        GoodsVo goods = new GoodsVo();
+        goods.setStockCount(10);
+        when(goodsService.findGoodsVoByGoodsIdFromDb(2L)).thenReturn(goods);
+        when(stringRedisTemplate.hasKey("order:1:2")).thenReturn(false);
+        when(orderService.seckill(any(), any())).thenThrow(new DuplicateKeyException("Duplicate entry '1-2'"));
+
+        receiver.receive(toAmqpMessage(message), channel);
+
+        verify(recoverer, never()).recover(any(), any());
+        verify(idempotency).markProcessed(message);
+        verify(channel).basicAck(7L, false);
+    }
+
+    private static Message toAmqpMessage(SeckillMessage message) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(7L);
+        return new SeckillMessageConverter().toMessage(message, properties);
+    }
+}
@@ -0,0 +1,123 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.config.RabbitMQPartitionConfig;
+import com.xxxx.seckill.config.RabbitMQTopicConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 秒杀准入控制测试，队列属性由模拟的 AmqpAdmin 提供
+ */
+class SeckillAdmissionTest {
+
+    private AmqpAdmin amqpAdmin;
+
+    private MQSender mqSender;
+
+    private SeckillPartitioner seckillPartitioner;
+
+    private SeckillAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        amqpAdmin = mock(AmqpAdmin.class);
+        admission = new SeckillAdmission();
+        mqSender = mock(MQSender.class);
+        ReflectionTestUtils.setField(admission, "amqpAdmin", amqpAdmin);
+        ReflectionTestUtils.setField(admission, "mqSender", mqSender);
+        seckillPartitioner = mock(SeckillPartitioner.class);
+        ReflectionTestUtils.setField(admission, "seckillPartitioner", seckillPartitioner);
+        ReflectionTestUtils.setField(admission, "enabled", true);
+        ReflectionTestUtils.setField(admission, "maxInFlight", 2);
+        ReflectionTestUtils.setField(admission, "rate", 1000.0);
+        ReflectionTestUtils.setField(admission, "burst", 100.0);
+        ReflectionTestUtils.setField(admission, "queueSoftLimit", 100L);
+        ReflectionTestUtils.setField(admission, "queueHardLimit", 1000L);
+        ReflectionTestUtils.setField(admission, "maxLagMillis", 10000L);
+        admission.init();
+    }
+
+    @Test
+    void testInFlightLimit() {
+        assertEquals(0, admission.tryAcquire());
+        assertEquals(0, admission.tryAcquire());
+        assertTrue(admission.tryAcquire() > 0, "处理中的请求达到上限后应该拒绝");
+        admission.release();
+        assertEquals(0, admission.tryAcquire(), "请求结束后应该重新放行");
+    }
+
+    @Test
+    void testRejectWhenQueueOverHardLimit() {
+        queue(2000, 4);
+        admission.sampleQueue();
+        long retryAfter = admission.tryAcquire();
+        assertTrue(retryAfter > 0, "队列积压超过上限时应该拒绝");
+        queue(10, 4);
+        admission.sampleQueue();
+        assertEquals(0, admission.tryAcquire(), "积压消化后应该恢复放行");
+    }
+
+    @Test
+    void testRejectWhenNoConsumer() {
+        queue(0, 0);
+        admission.sampleQueue();
+        assertTrue(admission.tryAcquire() > 0, "没有消费者时应该拒绝");
+    }
+
+    @Test
+    void testPartitionQueuesAreSummed() {
+        when(seckillPartitioner.isEnabled()).thenReturn(true);
+        when(seckillPartitioner.getMaxPartitions()).thenReturn(3);
+        // 每个分区都没有超过上限，合计超过上限；旧队列未声明
+        queue(RabbitMQPartitionConfig.QUEUE_PREFIX + 0, 400, 1);
+        queue(RabbitMQPartitionConfig.QUEUE_PREFIX + 1, 400, 1);
+        queue(RabbitMQPartitionConfig.QUEUE_PREFIX + 2, 400, 1);
+        admission.sampleQueue();
+        assertEquals(1200L, (long) ReflectionTestUtils.getField(admission, "queueDepth"));
+        assertEquals(3, (int) ReflectionTestUtils.getField(admission, "consumerCount"));
+        assertTrue(admission.tryAcquire() > 0, "所有分区的积压合计超过上限时应该拒绝");
+    }
+
+    @Test
+    void testDrainRateCountsPublishedMessagesOnly() throws InterruptedException {
+        queue(500, 4);
+        admission.sampleQueue();
+        // 放行但没有发布消息的请求（例如售罄）不计入消费速率
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, admission.tryAcquire());
+            admission.release();
+        }
+        Thread.sleep(20);
+        admission.sampleQueue();
+        assertEquals(0.0, (double) ReflectionTestUtils.getField(admission, "drainRate"),
+                "队列深度不变且没有发布消息时消费速率应该为0");
+
+        when(mqSender.getPublishedCount()).thenReturn(100L);
+        queue(400, 4);
+        Thread.sleep(20);
+        admission.sampleQueue();
+        assertTrue((double) ReflectionTestUtils.getField(admission, "drainRate") > 0,
+                "发布100条后深度反而下降，说明消费者在处理");
+    }
+
+    private void queue(long depth, int consumers) {
+        queue(RabbitMQTopicConfig.QUEUE, depth, consumers);
+    }
+
+    private void queue(String name, long depth, int consumers) {
+        Properties properties = new Properties();
+        properties.put(RabbitAdmin.QUEUE_MESSAGE_COUNT, depth);
+        properties.put(RabbitAdmin.QUEUE_CONSUMER_COUNT, consumers);
+        when(amqpAdmin.getQueueProperties(name)).thenReturn(properties);
+    }
+}
@@ -0,0 +1,44 @@
+package com.xxxx.seckill.rabbitmq;
+
+import com.xxxx.seckill.entity.User;
+import com.xxxx.seckill.utils.JsonUtil;
+import com.xxxx.seckill.vo.SeckillMessage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 秒杀消息二进制编码测试
+ */
+class SeckillMessageConverterTest {
+
+    private final SeckillMessageConverter converter = new SeckillMessageConverter();
+
+    @Test
+    void testRoundTrip() {
+        SeckillMessage message = new SeckillMessage(13000000000L, 1L, -42L, 1_700_000_000_000L);
+        Message amqpMessage = converter.toMessage(message, new MessageProperties());
+        assertEquals(SeckillMessageConverter.MESSAGE_SIZE, amqpMessage.getBody().length, "消息体应该固定为32字节");
+        assertEquals(SeckillMessageConverter.CONTENT_TYPE, amqpMessage.getMessageProperties().getContentType());
+        assertEquals(message, converter.fromMessage(amqpMessage));
+    }
+
+    @Test
+    void testLegacyJsonMessage() {
+        Map<String, Object> legacy = new LinkedHashMap<>();
+        legacy.put("user", new User().setId(13000000000L).setNickname("admin"));
+        legacy.put("goodsId", 2L);
+        Message amqpMessage = new SimpleMessageConverter().toMessage(JsonUtil.object2JsonStr(legacy),
+                new MessageProperties());
+        SeckillMessage message = (SeckillMessage) converter.fromMessage(amqpMessage);
+        assertEquals(13000000000L, message.getUserId());
+        assertEquals(2L, message.getGoodsId());
+    }
+}
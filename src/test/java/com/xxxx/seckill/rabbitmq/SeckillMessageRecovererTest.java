@@ -0,0 +1,97 @@
+package com.xxxx.seckill.rabbitmq;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 秒杀消息重试层级测试，发送由模拟的 RabbitTemplate 记录
+ */
+class SeckillMessageRecovererTest {
+
+    private RabbitOperations operations;
+
+    private SeckillMessageRecoverer recoverer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        operations = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(operations));
+        recoverer = new SeckillMessageRecoverer();
+        ReflectionTestUtils.setField(recoverer, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(recoverer, "amqpAdmin", mock(AmqpAdmin.class));
+        ReflectionTestUtils.setField(recoverer, "tiers", 2);
+        ReflectionTestUtils.setField(recoverer, "initialDelay", 1000L);
+        ReflectionTestUtils.setField(recoverer, "multiplier", 5);
+        recoverer.init();
+    }
+
+    @Test
+    void testExponentialTiers() {
+        assertEquals("seckillRetry.1000", recoverer.tierName(1));
+        assertEquals("seckillRetry.5000", recoverer.tierName(2));
+    }
+
+    @Test
+    void testRetryThenDeadLetter() {
+        Message first = message(null);
+        recoverer.recover(first, new IllegalStateException("db down"));
+        Message retried = sent("seckillRetry.1000", "seckillQueue.3");
+        assertEquals(1, (int) retried.getMessageProperties().getHeader(SeckillMessageRecoverer.RETRY_HEADER));
+
+        recoverer.recover(message(1), new IllegalStateException("db down"));
+        sent("seckillRetry.5000", "seckillQueue.3");
+
+        recoverer.recover(message(2), new IllegalStateException("db down"));
+        Message dead = sent("", SeckillMessageRecoverer.DEAD_LETTER_QUEUE);
+        assertEquals("seckillQueue.3",
+                dead.getMessageProperties().getHeader(SeckillMessageRecoverer.ORIGIN_QUEUE_HEADER));
+    }
+
+    @Test
+    void testUndecodableMessageGoesStraightToDeadLetter() {
+        recoverer.recover(message(null), new MessageConversionException("bad body"));
+        sent("", SeckillMessageRecoverer.DEAD_LETTER_QUEUE);
+    }
+
+    @Test
+    void testConstraintViolationGoesStraightToDeadLetter() {
+        // 包装在其他异常中的约束冲突同样不重试
+        recoverer.recover(message(null), new IllegalStateException("order failed",
+                new DataIntegrityViolationException("Column 'goods_name' cannot be null")));
+        sent("", SeckillMessageRecoverer.DEAD_LETTER_QUEUE);
+    }
+
+    private Message sent(String exchange, String routingKey) {
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(operations).send(eq(exchange), eq(routingKey), captor.capture());
+        return captor.getValue();
+    }
+
+    private static Message message(Integer attempt) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("seckillQueue.3");
+        if (attempt != null) {
+            properties.setHeader(SeckillMessageRecoverer.RETRY_HEADER, attempt);
+        }
+        return new Message(new byte[32], properties);
+    }
+}
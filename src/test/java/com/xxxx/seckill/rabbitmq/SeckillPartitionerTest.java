@@ -0,0 +1,37 @@
+package com.xxxx.seckill.rabbitmq;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 秒杀消息分区（Jump Consistent Hash）测试
+ */
+class SeckillPartitionerTest {
+
+    @Test
+    void testBalanced() {
+        int[] counts = new int[8];
+        for (long goodsId = 1; goodsId <= 80000; goodsId++) {
+            counts[SeckillPartitioner.jumpConsistentHash(goodsId, 8)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 9000 && count < 11000, "各分区的商品数应该接近平均值，实际：" + count);
+        }
+    }
+
+    @Test
+    void testMinimalMovement() {
+        int moved = 0;
+        for (long goodsId = 1; goodsId <= 90000; goodsId++) {
+            int before = SeckillPartitioner.jumpConsistentHash(goodsId, 8);
+            int after = SeckillPartitioner.jumpConsistentHash(goodsId, 9);
+            if (before != after) {
+                assertEquals(8, after, "扩容时商品只能迁移到新增的分区");
+                moved++;
+            }
+        }
+        // 期望迁移 1/9
+        assertTrue(moved > 9000 && moved < 11000, "迁移的商品数应该约为1/9，实际：" + moved);
+    }
+}
@@ -0,0 +1,71 @@
+package com.xxxx.seckill.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RedisCircuitBreaker 状态转换测试
+ */
+class RedisCircuitBreakerTest {
+
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "enabled", true);
+        ReflectionTestUtils.setField(breaker, "windowSize", 10);
+        ReflectionTestUtils.setField(breaker, "minimumCalls", 10);
+        ReflectionTestUtils.setField(breaker, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(breaker, "slowCallMillis", 100L);
+        ReflectionTestUtils.setField(breaker, "openDurationMillis", 50L);
+        ReflectionTestUtils.setField(breaker, "halfOpenCalls", 2);
+    }
+
+    @Test
+    void testOpensOnFailureRate() {
+        for (int i = 0; i < 6; i++) {
+            breaker.acquirePermission();
+            breaker.record(1, false);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.record(1, true);
+        }
+        assertFalse(breaker.isOpen(), "失败率未达到阈值时不应熔断");
+        breaker.record(500, false);
+        assertTrue(breaker.isOpen(), "慢调用同样计为失败，失败率达到50%后应该熔断");
+        assertThrows(RedisCircuitOpenException.class, breaker::acquirePermission, "熔断期间应该快速失败");
+    }
+
+    @Test
+    void testHalfOpenRecovery() throws InterruptedException {
+        openBreaker();
+        Thread.sleep(60);
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertThrows(RedisCircuitOpenException.class, breaker::acquirePermission, "半开状态只放行有限的探测");
+        breaker.record(1, false);
+        breaker.record(1, false);
+        assertFalse(breaker.isOpen(), "探测全部成功后应该恢复");
+        breaker.acquirePermission();
+    }
+
+    @Test
+    void testHalfOpenFailureReopens() throws InterruptedException {
+        openBreaker();
+        Thread.sleep(60);
+        breaker.acquirePermission();
+        breaker.record(1, true);
+        assertThrows(RedisCircuitOpenException.class, breaker::acquirePermission, "探测失败后应该重新熔断");
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 10; i++) {
+            breaker.record(1, true);
+        }
+        assertTrue(breaker.isOpen());
+    }
+}
@@ -0,0 +1,174 @@
+package com.xxxx.seckill.service;
+
+import com.xxxx.seckill.mapper.SeckillGoodsMapper;
+import com.xxxx.seckill.service.impl.SeckillGoodsServiceImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 库存合并扣减测试
+ * Mapper 使用内存中的库存模拟 t_seckill_goods 的一行，每条扣减语句耗时约1毫秒
+ */
+class StockAggregationTest {
+
+    private static final Long GOODS_ID = 1L;
+
+    private final AtomicInteger stock = new AtomicInteger();
+
+    private final AtomicInteger updates = new AtomicInteger();
+
+    /**
+     * 每条扣减语句的耗时
+     */
+    private volatile long updateMillis = 1;
+
+    private final CountDownLatch updateStarted = new CountDownLatch(1);
+
+    private SeckillGoodsMapper mapper;
+
+    private SeckillGoodsServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(SeckillGoodsMapper.class);
+        when(mapper.decrementStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            updates.incrementAndGet();
+            updateStarted.countDown();
+            // 模拟一条UPDATE的耗时，提交期间到达的请求才会合并到下一批
+            Thread.sleep(updateMillis);
+            int count = invocation.getArgument(1);
+            synchronized (stock) {
+                if (stock.get() < count) {
+                    return 0;
+                }
+                stock.addAndGet(-count);
+                return 1;
+            }
+        });
+        when(mapper.selectStockForUpdate(anyLong())).thenAnswer(invocation -> stock.get());
+        when(mapper.increaseStock(anyLong(), anyInt()))
+                .thenAnswer(invocation -> stock.addAndGet((Integer) invocation.getArgument(1)) > 0 ? 1 : 0);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            synchronized (stock) {
+                return ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null);
+            }
+        });
+
+        service = new SeckillGoodsServiceImpl();
+        ReflectionTestUtils.setField(service, "seckillGoodsMapper", mapper);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "aggregationEnabled", true);
+        ReflectionTestUtils.setField(service, "aggregationWindowMillis", 5L);
+        ReflectionTestUtils.setField(service, "aggregationMaxBatch", 100);
+        ReflectionTestUtils.setField(service, "aggregationThreads", 2);
+        ReflectionTestUtils.setField(service, "aggregationCommitTimeoutMillis", 3000L);
+        service.startStockFlusher();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stopStockFlusher();
+    }
+
+    @Test
+    void testNoOversellAndFewerUpdates() throws Exception {
+        stock.set(150);
+        int requests = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.decrementStock(GOODS_ID);
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                granted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(150, granted, "成功扣减的请求数必须等于初始库存");
+        assertEquals(0, stock.get(), "库存应该恰好扣完，不能为负");
+        assertTrue(updates.get() < requests / 4, "扣减语句应该远少于请求数，实际：" + updates.get());
+    }
+
+    @Test
+    void testSingleCallerDoesNotWaitForWindow() {
+        // 合并窗口设为1秒，单个调用方如果等待窗口，10次扣减至少需要10秒
+        ReflectionTestUtils.setField(service, "aggregationWindowMillis", 1000L);
+        stock.set(10);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(service.decrementStock(GOODS_ID));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(service.decrementStock(GOODS_ID), "库存扣完后应该返回失败");
+        assertEquals(11, updates.get(), "没有并发请求时每次扣减立即提交");
+        assertTrue(elapsedMillis < 1000, "单个调用方不应该等待合并窗口，实际耗时：" + elapsedMillis);
+    }
+
+    @Test
+    void testWaitTimeoutRestoresAbandonedStock() throws Exception {
+        // 第一批提交期间到达的请求由定时线程提交；扣减语句比 合并窗口 + 提交超时 更慢，
+        // 调用方放弃等待，批次提交后把这件库存加回去
+        ReflectionTestUtils.setField(service, "aggregationCommitTimeoutMillis", 50L);
+        updateMillis = 500;
+        stock.set(10);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Boolean> first = executor.submit(() -> service.decrementStock(GOODS_ID));
+        assertTrue(updateStarted.await(1, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> service.decrementStock(GOODS_ID));
+        assertTrue(first.get());
+        executor.shutdown();
+        verify(mapper, timeout(2000)).increaseStock(GOODS_ID, 1);
+        assertEquals(9, stock.get(), "放弃等待的扣减应该加回库存");
+    }
+
+    @Test
+    void testRejectedScheduleFlushesInline() throws Exception {
+        // 第一批提交期间定时线程池被关闭，新批次不能再定时提交，由调用线程直接提交
+        updateMillis = 200;
+        stock.set(10);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Boolean> first = executor.submit(() -> service.decrementStock(GOODS_ID));
+        assertTrue(updateStarted.await(1, TimeUnit.SECONDS));
+        service.stopStockFlusher();
+
+        assertTrue(service.decrementStock(GOODS_ID));
+        assertTrue(first.get());
+        executor.shutdown();
+        assertEquals(8, stock.get());
+    }
+}
@@ -0,0 +1,58 @@
+package com.xxxx.seckill.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ShardRouter 单元测试
+ */
+class ShardRouterTest {
+
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ShardRouter();
+        ReflectionTestUtils.setField(router, "enabled", true);
+        ReflectionTestUtils.setField(router, "tableCount", 4);
+        router.init();
+    }
+
+    @Test
+    void testOrderIdCarriesUserShard() {
+        for (long userId = 13000000000L; userId < 13000010000L; userId++) {
+            long orderId = 12345L << ShardRouter.SLOT_BITS | ShardRouter.slotOf(userId);
+            assertEquals(router.shardOfUser(userId), router.shardOfOrder(orderId),
+                    "订单ID算出的分片必须与用户ID一致");
+        }
+    }
+
+    @Test
+    void testPhysicalTableName() {
+        assertEquals("t_goods", router.physicalTableName("t_goods"), "不分表的表应该原样返回");
+        assertThrows(IllegalStateException.class, () -> router.physicalTableName("t_order"),
+                "未指定分片时访问分表应该报错");
+        long userId = 13000000001L;
+        String table = router.withUser(userId, () -> router.physicalTableName("t_seckill_order"));
+        assertEquals("t_seckill_order_" + router.shardOfUser(userId), table);
+        assertNull(ShardContext.get(), "执行结束后应该清除分片标记");
+    }
+
+    @Test
+    void testScatterGather() {
+        List<String> tables = router.scatterGather(shard -> Arrays.asList(router.physicalTableName("t_order")));
+        assertEquals(Arrays.asList("t_order_0", "t_order_1", "t_order_2", "t_order_3"), tables);
+    }
+
+    @Test
+    void testInvalidTableCount() {
+        ReflectionTestUtils.setField(router, "tableCount", 3);
+        assertThrows(IllegalStateException.class, router::init);
+    }
+}
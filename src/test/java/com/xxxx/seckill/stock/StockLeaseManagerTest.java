@@ -0,0 +1,126 @@
+package com.xxxx.seckill.stock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地库存租约并发压力测试
+ * 多个 StockLeaseManager 模拟多个节点，共享一个内存中的“Redis库存”，租用和归还脚本按Lua中的语义实现
+ */
+class StockLeaseManagerTest {
+
+    private static final Long GOODS_ID = 1L;
+
+    private static final int STOCK = 1000;
+
+    private final RedisScript<Long> leaseScript = new DefaultRedisScript<>("lease", Long.class);
+
+    private final RedisScript<Long> returnScript = new DefaultRedisScript<>("return", Long.class);
+
+    /**
+     * Redis中的库存，-1 表示库存key不存在
+     */
+    private long redisStock = STOCK;
+
+    private final StringRedisTemplate redis = new StringRedisTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (!keys.get(0).equals("seckillGoods:" + GOODS_ID)) {
+                return (T) Long.valueOf(-2);
+            }
+            long count = Long.parseLong((String) args[0]);
+            synchronized (StockLeaseManagerTest.this) {
+                if (script == leaseScript) {
+                    long leased = Math.min(redisStock, count);
+                    redisStock -= leased;
+                    return (T) Long.valueOf(leased);
+                }
+                redisStock += count;
+                return (T) Long.valueOf(redisStock);
+            }
+        }
+    };
+
+    @Test
+    void testNoOversellAcrossNodes() throws Exception {
+        int nodes = 4;
+        int threadsPerNode = 50;
+        int requestsPerThread = 20;
+        List<StockLeaseManager> managers = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            managers.add(createManager());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (StockLeaseManager manager : managers) {
+            for (int i = 0; i < threadsPerNode; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        long result = manager.tryAcquire(GOODS_ID);
+                        assertNotEquals(-2L, result, "库存key存在时不应返回-2");
+                        if (result >= 0) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+        }
+        start.countDown();
+        int sold = 0;
+        for (Future<Integer> result : results) {
+            sold += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // 请求数（4000）远大于库存，所有库存都应该被卖出，且不能超卖
+        assertEquals(STOCK, sold, "卖出数量必须等于库存");
+        for (StockLeaseManager manager : managers) {
+            manager.returnAllLeases();
+        }
+        assertEquals(0, redisStock, "库存卖完后不应有剩余");
+    }
+
+    @Test
+    void testUnusedLeaseReturnedOnShutdown() {
+        StockLeaseManager manager = createManager();
+        for (int i = 0; i < 7; i++) {
+            assertTrue(manager.tryAcquire(GOODS_ID) >= 0);
+        }
+        manager.returnAllLeases();
+        assertEquals(STOCK - 7, redisStock, "未用完的租约应该全部归还");
+        assertEquals(-2L, createManager().tryAcquire(2L), "库存未加载的商品应返回-2");
+    }
+
+    private StockLeaseManager createManager() {
+        StockLeaseManager manager = new StockLeaseManager();
+        ReflectionTestUtils.setField(manager, "stringRedisTemplate", redis);
+        ReflectionTestUtils.setField(manager, "stockLeaseScript", leaseScript);
+        ReflectionTestUtils.setField(manager, "stockReturnScript", returnScript);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "blockSize", 50);
+        ReflectionTestUtils.setField(manager, "refillThreshold", 10);
+        ReflectionTestUtils.setField(manager, "idleReturnMillis", 10000L);
+        manager.init();
+        return manager;
+    }
+}
@@ -0,0 +1,44 @@
+package com.xxxx.seckill.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongBloomFilter 单元测试
+ */
+class LongBloomFilterTest {
+
+    @Test
+    void testNoFalseNegative() {
+        LongBloomFilter filter = new LongBloomFilter(10000, 0.01);
+        for (long id = 1; id <= 10000; id++) {
+            filter.put(id);
+        }
+        for (long id = 1; id <= 10000; id++) {
+            assertTrue(filter.mightContain(id), "已添加的ID必须判定为可能存在");
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        LongBloomFilter filter = new LongBloomFilter(10000, 0.01);
+        for (long id = 1; id <= 10000; id++) {
+            filter.put(id);
+        }
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        // 期望误判率1%，留出余量
+        assertTrue(falsePositives < 2000, "误判率应该接近配置值，实际误判数：" + falsePositives);
+    }
+
+    @Test
+    void testInvalidFpp() {
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(100, 1));
+    }
+}
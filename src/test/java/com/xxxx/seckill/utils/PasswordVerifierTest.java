@@ -0,0 +1,32 @@
+package com.xxxx.seckill.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PasswordVerifier 单元测试：校验结果必须与 MD5Util.formPassToDBPass().equals() 完全一致
+ */
+class PasswordVerifierTest {
+
+    @Test
+    void testPasswordVerifierMatchesFormPassToDBPass() {
+        String formPass = "d3b1294a61a07da9b49b6e22b2cbd7f9";
+        String salt = "1a2b3c4d";
+        String dbPass = MD5Util.formPassToDBPass(formPass, salt);
+
+        assertTrue(PasswordVerifier.matches(formPass, salt, dbPass), "正确的密码应该校验通过");
+        assertTrue(PasswordVerifier.matches(formPass, salt, dbPass), "复用线程缓存后结果应该一致");
+        assertFalse(PasswordVerifier.matches(formPass, "anothersalt123", dbPass), "盐值不同应该校验失败");
+        assertFalse(PasswordVerifier.matches("d3b1294a61a07da9b49b6e22b2cbd7f8", salt, dbPass), "密码不同应该校验失败");
+        assertFalse(PasswordVerifier.matches(formPass, salt, dbPass.toUpperCase()), "与String.equals一致，大小写敏感");
+        assertFalse(PasswordVerifier.matches(formPass, salt, dbPass.substring(1)), "长度不同应该校验失败");
+        assertFalse(PasswordVerifier.matches(formPass, "abc", dbPass), "盐值长度不足应该校验失败");
+        assertFalse(PasswordVerifier.matches(null, salt, dbPass), "null密码应该校验失败");
+
+        // 非ASCII输入走UTF-8编码分支
+        String unicodePass = "复杂密码#123";
+        assertTrue(PasswordVerifier.matches(unicodePass, salt, MD5Util.formPassToDBPass(unicodePass, salt)),
+                "非ASCII输入也应该与MD5Util结果一致");
+    }
+}
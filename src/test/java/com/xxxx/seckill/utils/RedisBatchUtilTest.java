@@ -0,0 +1,52 @@
+package com.xxxx.seckill.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * RedisBatchUtil 单元测试
+ */
+class RedisBatchUtilTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLargeKeySetUsesOnePipeline() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            keys.add("seckillGoods:" + i);
+        }
+        // 1200个key拆成 500 + 500 + 200 三条MGET
+        List<Object> pipelined = new ArrayList<>();
+        pipelined.add(Collections.nCopies(500, "1"));
+        pipelined.add(Collections.nCopies(500, "2"));
+        pipelined.add(Collections.nCopies(200, "3"));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(pipelined);
+
+        Map<String, Long> values = RedisBatchUtil.multiGetLong(redisTemplate, keys);
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(valueOperations, never()).multiGet(anyCollection());
+        assertEquals(1200, values.size());
+        assertEquals(1L, values.get("seckillGoods:0"));
+        assertEquals(3L, values.get("seckillGoods:1199"));
+    }
+}